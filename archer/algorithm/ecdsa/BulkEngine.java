@@ -0,0 +1,170 @@
+package archer.algorithm.ecdsa;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+public final class BulkEngine implements AutoCloseable {
+	/**
+	 * Items one task signs or recovers, and items one task verifies as a batch.
+	 * */
+	static final int SIGN_CHUNK = 32;
+	static final int VERIFY_CHUNK = 256;
+	
+	final Ecdsa ecdsa;
+	final ForkJoinPool pool;
+	private final boolean ownPool;
+	
+	/**
+	 * @param ecdsa instance doing the work, it is shared by every worker.
+	 * @param parallelism number of worker threads of a pool owned by this engine, close shuts it down.
+	 * */
+	public BulkEngine(Ecdsa ecdsa, int parallelism) {
+		this(ecdsa, new ForkJoinPool(parallelism), true);
+	}
+	
+	/**
+	 * @param ecdsa instance doing the work, it is shared by every worker.
+	 * @param pool pool running the work, it is left open by close, ForkJoinPool.commonPool() for instance.
+	 * */
+	public BulkEngine(Ecdsa ecdsa, ForkJoinPool pool) {
+		this(ecdsa, pool, false);
+	}
+	
+	private BulkEngine(Ecdsa ecdsa, ForkJoinPool pool, boolean ownPool) {
+		this.ecdsa = ecdsa;
+		this.pool = pool;
+		this.ownPool = ownPool;
+	}
+	
+	/**
+	 * @param privKeysBytes private keys content bytes.
+	 * @param hashesBytes hash contents bytes.
+	 * 
+	 * @return signature of every pair, same order, the first invalid private key fails the whole call.
+	 * */
+	public String[] signAll(byte[][] privKeysBytes, byte[][] hashesBytes) {
+		int n = checkLength(privKeysBytes.length, hashesBytes.length);
+		String[] out = new String[n];
+		pool.invoke(new Range(0, n, SIGN_CHUNK, (from, to) -> {
+			for(int i = from; i < to; ++i)
+				out[i] = ecdsa.sign(privKeysBytes[i], hashesBytes[i]);
+		}));
+		return out;
+	}
+	
+	/**
+	 * Every task checks its chunk with Ecdsa.verifyBatch.
+	 * 
+	 * @param pubKeysBytes public keys content bytes.
+	 * @param hashesBytes hash contents bytes.
+	 * @param sigs signatures content.
+	 * 
+	 * @return result of every signature, same order, malformed inputs are false.
+	 * */
+	public boolean[] verifyAll(byte[][] pubKeysBytes, byte[][] hashesBytes, String[] sigs) {
+		int n = checkLength(pubKeysBytes.length, hashesBytes.length, sigs.length);
+		boolean[] out = new boolean[n];
+		pool.invoke(new Range(0, n, VERIFY_CHUNK, (from, to) -> {
+			boolean[] ok = ecdsa.verifyBatch(Arrays.copyOfRange(pubKeysBytes, from, to), 
+					Arrays.copyOfRange(hashesBytes, from, to), Arrays.copyOfRange(sigs, from, to));
+			System.arraycopy(ok, 0, out, from, ok.length);
+		}));
+		return out;
+	}
+	
+	/**
+	 * @param hashesBytes hash contents bytes.
+	 * @param sigs signatures content.
+	 * @param format encoding of the public keys.
+	 * 
+	 * @return public key of every signature, same order, null for a signature no key can be recovered from.
+	 * */
+	public byte[][] recoverAll(byte[][] hashesBytes, String[] sigs, KeyFormat format) {
+		int n = checkLength(hashesBytes.length, sigs.length);
+		byte[][] out = new byte[n][];
+		pool.invoke(new Range(0, n, SIGN_CHUNK, (from, to) -> {
+			for(int i = from; i < to; ++i) {
+				try {
+					out[i] = ecdsa.recoverToPublicKey(hashesBytes[i], sigs[i], format);
+				} catch(RuntimeException e) {
+					out[i] = null;
+				}
+			}
+		}));
+		return out;
+	}
+	
+	/**
+	 * Shut the pool down if this engine created it.
+	 * */
+	@Override
+	public void close() {
+		if(ownPool)
+			pool.shutdown();
+	}
+	
+	private static int checkLength(int n, int ...others) {
+		for(int m: others)
+			if(m != n)
+				throw new java.lang.RuntimeException("Invalid bulk input, lengths differ.");
+		return n;
+	}
+	
+	interface Chunk {
+		void run(int from, int to);
+	}
+	
+	/**
+	 * Splits [from,to) in halves until a part is at most chunk items long.
+	 * */
+	static final class Range extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		final int from, to, chunk;
+		final Chunk body;
+		
+		Range(int from, int to, int chunk, Chunk body) {
+			this.from = from;
+			this.to = to;
+			this.chunk = chunk;
+			this.body = body;
+		}
+		
+		@Override
+		protected void compute() {
+			if(to-from <= chunk) {
+				if(to > from)
+					body.run(from, to);
+				return;
+			}
+			int mid = (from+to)>>>1;
+			invokeAll(new Range(from, mid, chunk, body), new Range(mid, to, chunk, body));
+		}
+	}
+}
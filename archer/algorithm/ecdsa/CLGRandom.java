@@ -1,6 +1,7 @@
 package archer.algorithm.ecdsa;
 
-import java.util.concurrent.atomic.AtomicLong;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 
 /**
  * 
@@ -28,16 +29,31 @@ import java.util.concurrent.atomic.AtomicLong;
  */
 
 public class CLGRandom {
+	/**
+	 * Every thread draws from its own generator seeded by the entropy source of the system, 
+	 * so signing threads never share state.
+	 * */
+	private static final ThreadLocal<SecureRandom> LOCAL = ThreadLocal.withInitial(CLGRandom::newGenerator);
+	
 	public CLGRandom() {
-		seed = new AtomicLong(System.nanoTime()&0x36e216d71L);
 	}
-	static AtomicLong seed;
 	
-	double crand() {
-		long oldSeed = seed.get();
-		long newSeed = ((0x12b9b0a5L * oldSeed + 0x1b0c88a5L)&Long.MAX_VALUE) % (0x80000000L);
-		seed.compareAndSet(oldSeed, newSeed);
-		return newSeed / 0x1.0p31;
+	/**
+	 * @return a DRBG instance of its own, or the default generator if the provider has none.
+	 * */
+	static SecureRandom newGenerator() {
+		try {
+			return SecureRandom.getInstance("DRBG");
+		} catch(NoSuchAlgorithmException e) {
+			return new SecureRandom();
+		}
+	}
+	
+	/**
+	 * @return generator of the current thread.
+	 * */
+	static SecureRandom generator() {
+		return LOCAL.get();
 	}
 	
 	/**
@@ -48,14 +64,14 @@ public class CLGRandom {
 	public int nextInt(int bound) {
 		if(bound <= 0)
 			throw new IllegalArgumentException("bound must be positive");
-		return (int) (crand()*bound);
+		return LOCAL.get().nextInt(bound);
 	}
 	
 	/**
 	 * @return random number in range [0,1)
 	 * */
 	public double random() {
-		return crand();
+		return LOCAL.get().nextDouble();
 	}
 	
 	/**
@@ -64,12 +80,15 @@ public class CLGRandom {
 	 * @return random byte array
 	 * */
 	public byte[] randomBytes(int len) {
-		int bound = 256, b;
 		byte[] ret = new byte[len];
-		for(int i = 0; i < len; ++i) {
-			b = nextInt(bound);
-			ret[i] = (byte) (b&0xff);
-		}
+		nextBytes(ret);
 		return ret;
 	}
+	
+	/**
+	 * @param out filled with random bytes in one call.
+	 * */
+	public void nextBytes(byte[] out) {
+		LOCAL.get().nextBytes(out);
+	}
 }
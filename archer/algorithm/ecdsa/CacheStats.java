@@ -0,0 +1,71 @@
+package archer.algorithm.ecdsa;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+public final class CacheStats {
+	final long hits;
+	final long misses;
+	final long evictions;
+	final int size;
+	final int capacity;
+	
+	CacheStats(long hits, long misses, long evictions, int size, int capacity) {
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+		this.size = size;
+		this.capacity = capacity;
+	}
+	
+	public long getHits() {
+		return hits;
+	}
+	public long getMisses() {
+		return misses;
+	}
+	public long getEvictions() {
+		return evictions;
+	}
+	public int getSize() {
+		return size;
+	}
+	public int getCapacity() {
+		return capacity;
+	}
+	
+	/**
+	 * @return hits of all lookups, 0 if there was none.
+	 * */
+	public double hitRatio() {
+		long n = hits+misses;
+		return n == 0?0:(double) hits/n;
+	}
+	
+	@Override
+	public String toString() {
+		return "hits="+hits+", misses="+misses+", evictions="+evictions+", size="+size+"/"+capacity;
+	}
+}
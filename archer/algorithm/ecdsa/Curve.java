@@ -84,6 +84,38 @@ public enum Curve {
 	final BigInteger Gx;
 	final BigInteger Gy;
 	
+	/**
+	 * Arithmetic modulo P.
+	 * */
+	final Field field;
+	
+	/**
+	 * Multiples of G, built on first use and shared by every Ecdsa instance of this curve.
+	 * */
+	private volatile FixedBaseTable baseTable;
+	
+	/**
+	 * Most compressed public keys whose y coordinate is kept.
+	 * */
+	static final int DECOMPRESS_CACHE_SIZE = 4096;
+	
+	/**
+	 * y coordinates of compressed public keys keyed on their 33 bytes, shared by every Ecdsa instance of this curve.
+	 * */
+	final LruCache<BigInteger, BigInteger> decompressed = new LruCache<>(DECOMPRESS_CACHE_SIZE);
+	
+	/**
+	 * GLV endomorphism constants of the k1 curves, built on first use.
+	 * */
+	private volatile Endomorphism endomorphism;
+	private volatile boolean endomorphismChecked;
+	
+	/**
+	 * Vector lanes over the field for bulk work, looked up on first use.
+	 * */
+	private volatile LaneField laneField;
+	private volatile boolean laneFieldChecked;
+	
 	public BigInteger getP() {
 		return P;
 	}
@@ -115,5 +147,83 @@ public enum Curve {
 		this.B = B;
 		this.Gx = Gx;
 		this.Gy = Gy;
+		this.field = Field.of(P);
+	}
+	
+	FixedBaseTable baseTable(Ecdsa ecdsa) {
+		FixedBaseTable t = baseTable;
+		if(t == null) {
+			//outside of the lock, installing takes the lock of the curve
+			TableStore.autoload(this);
+			synchronized(this) {
+				t = baseTable;
+				if(t == null)
+					baseTable = t = new FixedBaseTable(ecdsa);
+			}
+		}
+		return t;
+	}
+	
+	/**
+	 * @return endomorphism of the curve, null if it has none.
+	 * */
+	Endomorphism endomorphism(Ecdsa ecdsa) {
+		if(endomorphismChecked)
+			return endomorphism;
+		TableStore.autoload(this);
+		synchronized(this) {
+			if(!endomorphismChecked) {
+				if(Endomorphism.supports(ecdsa))
+					endomorphism = new Endomorphism(ecdsa);
+				endomorphismChecked = true;
+			}
+		}
+		return endomorphism;
+	}
+	
+	/**
+	 * @return lanes over the field of the curve, null if bulk work has to stay on the scalar path.
+	 * */
+	LaneField laneField() {
+		if(laneFieldChecked)
+			return laneField;
+		synchronized(this) {
+			if(!laneFieldChecked) {
+				laneField = LaneField.of(field);
+				laneFieldChecked = true;
+			}
+		}
+		return laneField;
+	}
+	
+	/**
+	 * Use tables loaded by TableStore, tables which are already built are kept. The odd multiples of t are 
+	 * mapped with the beta of e, they are only usable with the same pair of beta and lambda as the curve.
+	 * 
+	 * @return if the base table was installed.
+	 * */
+	boolean install(FixedBaseTable t, Endomorphism e) {
+		synchronized(this) {
+			if(!endomorphismChecked) {
+				endomorphism = e;
+				endomorphismChecked = true;
+			} else if(endomorphism == null?e != null:e == null || !endomorphism.beta.equals(e.beta))
+				return false;
+			if(baseTable != null)
+				return false;
+			baseTable = t;
+			return true;
+		}
+	}
+	
+	/**
+	 * @return tables of the curve as TableStore saves them, built if needed.
+	 * */
+	FixedBaseTable baseTable() {
+		return baseTable(Ecdsa.from(this));
+	}
+	
+	Endomorphism endomorphism() {
+		return endomorphism(Ecdsa.from(this));
 	}
 }
@@ -1,7 +1,9 @@
 package archer.algorithm.ecdsa;
 
 import java.math.BigInteger;
-import java.security.NoSuchAlgorithmException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * 
@@ -24,6 +26,10 @@ import java.security.NoSuchAlgorithmException;
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
  * SOFTWARE.
  * 
+ * Instances are immutable, every field is final and the options are fixed by from and the with methods, 
+ * which return new instances. One instance can be shared by any number of threads, temporaries are 
+ * allocated per call and random state is kept per thread.
+ * 
  * @author archer
  *
  */
@@ -33,15 +39,70 @@ public class Ecdsa {
 	 * Parameters for y^2 = x^3 + a*x + b (mod = P).
 	 * Base point G(x,y).
 	 * */
-	BigInteger P;
-	BigInteger N;
-	BigInteger A;
-	BigInteger B;
-	BigInteger Gx;
-	BigInteger Gy;
+	final BigInteger P;
+	final BigInteger N;
+	final BigInteger A;
+	final BigInteger B;
+	final BigInteger Gx;
+	final BigInteger Gy;
+	
+	final Curve curve;
+	
+	/**
+	 * Arithmetic modulo P, A in its representation.
+	 * */
+	final Field F;
+	final int[] fieldA;
+	
+	/**
+	 * Shape of the curve, doubling formulas are chosen by it.
+	 * */
+	final boolean aIsZero;
+	final boolean aIsMinus3;
 	
+	/**
+	 * P-1 = 2^sqrtE*sqrtQ with sqrtQ odd, sqrtZ = z^sqrtQ for some non square z, used by sqrt when P = 1 (mod = 4).
+	 * */
+	final BigInteger sqrtQ;
+	final int sqrtE;
+	final BigInteger sqrtZ;
 
-	CLGRandom r;
+	final CLGRandom r;
+	
+	/**
+	 * If nonces are derived by RFC 6979 from the private key and the hash instead of fresh random bytes.
+	 * */
+	final boolean deterministic;
+	
+	/**
+	 * Default wNAF width of variable base points, and the range accepted by from(Curve, int).
+	 * */
+	static final int WNAF_WIDTH = 5;
+	static final int WNAF_MIN = 2;
+	static final int WNAF_MAX = 8;
+	
+	/**
+	 * wNAF width of variable base points, every multiplication builds 2^(window-2) odd multiples of its point.
+	 * */
+	final int window;
+	
+	/**
+	 * Fixed-base tables of frequently verified public keys keyed on x and y, null unless enabled by withKeyCache. 
+	 * A key gets its table once it has been seen KEY_CACHE_ADMIT times, keys seen once stay in keySeen only.
+	 * */
+	final LruCache<BigInteger, FixedBaseTable> keyTables;
+	final LruCache<BigInteger, int[]> keySeen;
+	static final int KEY_CACHE_ADMIT = 2;
+	
+	/**
+	 * Batches smaller than this are verified one by one.
+	 * */
+	static final int BATCH_MIN = 4;
+	
+	/**
+	 * Multi-scalar multiplications with at least this many points use buckets instead of interleaved wNAF.
+	 * */
+	static final int PIPPENGER_MIN = 512;
 	
 	/**
 	 * Initialize several numbers in range 0~9.
@@ -52,14 +113,48 @@ public class Ecdsa {
 	};
 	
 	protected Ecdsa(Curve curve) {
+		this(curve, WNAF_WIDTH);
+	}
+	
+	protected Ecdsa(Curve curve, int window) {
+		this(curve, window, false, null, null);
+	}
+	
+	/**
+	 * @param keyTables cache of the public key tables, null to disable it, shared with the instance it comes from.
+	 * */
+	private Ecdsa(Curve curve, int window, boolean deterministic, 
+			LruCache<BigInteger, FixedBaseTable> keyTables, LruCache<BigInteger, int[]> keySeen) {
+		if(window < WNAF_MIN || window > WNAF_MAX)
+			throw new java.lang.RuntimeException("Invalid window width, "+window);
+		this.window = window;
+		this.curve = curve;
 		P = curve.P;
 		N = curve.N;
 		A = curve.A;
 		B = curve.B;
 		Gx = curve.Gx;
 		Gy = curve.Gy;
+		F = curve.field;
+		fieldA = F.fromBigInt(A);
+		aIsZero = A.signum() == 0;
+		aIsMinus3 = A.equals(P.subtract(NUM[3]));
+		
+		BigInteger pm1 = P.subtract(NUM[1]);
+		sqrtE = pm1.getLowestSetBit();
+		sqrtQ = pm1.shiftRight(sqrtE);
+		if(sqrtE > 1) {
+			BigInteger z = NUM[2];
+			while(!z.modPow(pm1.shiftRight(1), P).equals(pm1))
+				z = z.add(NUM[1]);
+			sqrtZ = z.modPow(sqrtQ, P);
+		} else
+			sqrtZ = null;
 
 		r = new CLGRandom();
+		this.deterministic = deterministic;
+		this.keyTables = keyTables;
+		this.keySeen = keySeen;
 	}
 	
 	/**
@@ -70,7 +165,49 @@ public class Ecdsa {
 	public static Ecdsa from(Curve curve) {
 		return new Ecdsa(curve);
 	}
+	
+	/**
+	 * @param curve the Elliptic Curves.
+	 * @param window wNAF width in range 2~8 used for points other than G, wider windows trade 
+	 * a larger table per multiplication for fewer additions.
+	 * 
+	 * @return instance of algorithm.
+	 * */
+	public static Ecdsa from(Curve curve, int window) {
+		return new Ecdsa(curve, window);
+	}
 
+	/**
+	 * A table costs about as much as four verifications to build and holds (bits of N)/4*15 points, 
+	 * around 170KB for a 256 bits curve, it pays off for keys which sign many messages. Tables are built 
+	 * on the common ForkJoinPool, never inside the verification which admits the key.
+	 * 
+	 * @param capacity most public keys whose precomputed multiples are kept.
+	 * 
+	 * @return new instance of the same curve and window whose verify keeps precomputed multiples of 
+	 * frequently seen public keys, least recently used keys are evicted first.
+	 * */
+	public Ecdsa withKeyCache(int capacity) {
+		return new Ecdsa(curve, window, deterministic, new LruCache<>(capacity), new LruCache<>(capacity<<2));
+	}
+	
+	/**
+	 * Signatures of one private key and one hash are then always the same, and signing does not depend on 
+	 * the quality of the random source.
+	 * 
+	 * @return new instance with the same options whose sign derives nonces by RFC 6979 with HMAC-SHA256.
+	 * */
+	public Ecdsa withDeterministicNonces() {
+		return new Ecdsa(curve, window, true, keyTables, keySeen);
+	}
+	
+	/**
+	 * @return counters of the public key cache, null if it is not enabled.
+	 * */
+	public CacheStats keyCacheStats() {
+		return keyTables == null?null:keyTables.stats();
+	}
+	
 	/**
 	 * @param privKeyBytes private key content bytes.
 	 * @param hashBytes hash content bytes.
@@ -78,39 +215,164 @@ public class Ecdsa {
 	 * @return signature string.
 	 * */
 	public String sign(byte[] privKeyBytes, byte[] hashBytes) {
+		byte[] out = new byte[SignatureUtil.COMPACT_LENGTH];
+		sign(privKeyBytes, hashBytes, out, 0);
+		return NumberUtil.bytesToHexStr(out);
+	}
+	
+	/**
+	 * @param privKeyBytes private key content bytes.
+	 * @param hashBytes hash content bytes.
+	 * @param out compact signature r, s and v is written at off.
+	 * @param off start of the signature in out.
+	 * 
+	 * @return bytes written, SignatureUtil.COMPACT_LENGTH.
+	 * */
+	public int sign(byte[] privKeyBytes, byte[] hashBytes, byte[] out, int off) {
+		BigInteger[] sig = signRaw(privKeyBytes, hashBytes);
+		return SignatureUtil.putCompact(ByteBuffer.wrap(out), off, sig[0], sig[1], sig[2]);
+	}
+	
+	/**
+	 * Buffers are read between position and limit, their positions are left as they are, 
+	 * out is written at its position which then moves past the signature.
+	 * 
+	 * @param privKey private key content.
+	 * @param hash hash content.
+	 * @param out receives the compact signature r, s and v.
+	 * 
+	 * @return bytes written, SignatureUtil.COMPACT_LENGTH.
+	 * */
+	public int sign(ByteBuffer privKey, ByteBuffer hash, ByteBuffer out) {
+		BigInteger[] sig = signRaw(SignatureUtil.remaining(privKey), SignatureUtil.remaining(hash));
+		int n = SignatureUtil.putCompact(out, out.position(), sig[0], sig[1], sig[2]);
+		out.position(out.position()+n);
+		return n;
+	}
+	
+	/**
+	 * Same as sign(ByteBuffer, ByteBuffer, ByteBuffer) with a DER encoded signature, it has no recovery byte.
+	 * 
+	 * @return bytes written, at most SignatureUtil.DER_MAX_LENGTH.
+	 * */
+	public int signDer(ByteBuffer privKey, ByteBuffer hash, ByteBuffer out) {
+		BigInteger[] sig = signRaw(SignatureUtil.remaining(privKey), SignatureUtil.remaining(hash));
+		int n = SignatureUtil.putDer(out, out.position(), sig[0], sig[1]);
+		out.position(out.position()+n);
+		return n;
+	}
+	
+	/**
+	 * @param key private key handle of this curve, see privateKeyHandle.
+	 * @param hashBytes hash content bytes.
+	 * 
+	 * @return signature string.
+	 * */
+	public String sign(PrivateKeyHandle key, byte[] hashBytes) {
+		checkCurve(key.curve);
+		byte[] out = new byte[SignatureUtil.COMPACT_LENGTH];
+		BigInteger[] sig = signRaw(key.priv, key.octets, hashBytes);
+		SignatureUtil.putCompact(ByteBuffer.wrap(out), 0, sig[0], sig[1], sig[2]);
+		return NumberUtil.bytesToHexStr(out);
+	}
+	
+	/**
+	 * The hash is read between position and limit, its position is left as it is, 
+	 * out is written at its position which then moves past the signature.
+	 * 
+	 * @param key private key handle of this curve, see privateKeyHandle.
+	 * @param hash hash content.
+	 * @param out receives the compact signature r, s and v.
+	 * 
+	 * @return bytes written, SignatureUtil.COMPACT_LENGTH.
+	 * */
+	public int sign(PrivateKeyHandle key, ByteBuffer hash, ByteBuffer out) {
+		checkCurve(key.curve);
+		BigInteger[] sig = signRaw(key.priv, key.octets, SignatureUtil.remaining(hash));
+		int n = SignatureUtil.putCompact(out, out.position(), sig[0], sig[1], sig[2]);
+		out.position(out.position()+n);
+		return n;
+	}
+	
+	/**
+	 * @return {r, s, v} of the signature, s is the lower one of s and N-s.
+	 * */
+	BigInteger[] signRaw(byte[] privKeyBytes, byte[] hashBytes) {
+		BigInteger priv = NumberUtil.bytesToBigInt(privKeyBytes);
+		return signRaw(priv, int2octets(priv.mod(N), (N.bitLength()+7)>>3), hashBytes);
+	}
+	
+	/**
+	 * @param priv private key.
+	 * @param privOctets private key mod N in octets of the length of N, the nonce is seeded with them.
+	 * 
+	 * @return {r, s, v} of the signature, s is the lower one of s and N-s.
+	 * */
+	BigInteger[] signRaw(BigInteger priv, byte[] privOctets, byte[] hashBytes) {
+		long t0 = Metrics.start();
+		Field.Scratch sc = F.scratch();
 		try {
-			BigInteger priv = NumberUtil.bytesToBigInt(privKeyBytes);
 			BigInteger hash = NumberUtil.bytesToBigInt(hashBytes);
-			byte[] v0 = r.randomBytes(32);
-			byte[] k0 = r.randomBytes(32);
-			
-			byte[] k1 = HashUtil.hmac(k0, concatBytes(v0, new byte[] {0}, privKeyBytes, hashBytes));
-			byte[] v1 = HashUtil.hmac(k1, v0);
-			byte[] k2 = HashUtil.hmac(k1, concatBytes(v1, new byte[] {1}, privKeyBytes, hashBytes));
-			byte[] v2 = HashUtil.hmac(k2, v1);
-
-			BigInteger k = new BigInteger(HashUtil.hmac(k2, v2));
+			BigInteger k = nonce(privOctets, hashBytes, deterministic?null:r.randomBytes(32));
 
-			BigInteger[] p = fastMultiply(Gx,Gy,NUM[1],k);
-			
-			BigInteger z = inv(p[2],P);
-			BigInteger r = z.pow(2).multiply(p[0]).mod(P), y = z.pow(3).multiply(p[1]).mod(P);
+			BigInteger[] p = toAffine(fastBaseMultiply(k, sc), sc);
+			if(p == null)
+				throw new java.lang.RuntimeException("Invalid nonce.");
+			BigInteger r = p[0], y = p[1];
 
 			BigInteger sRaw = inv(k,N).multiply(hash.add(r.multiply(priv))).mod(N);
 			BigInteger s = sRaw.multiply(NUM[2]).compareTo(N) < 0?sRaw:N.subtract(sRaw);
-				
-			BigInteger v = y.mod(NUM[2]).xor(sRaw.multiply(NUM[2]).compareTo(N) < 0?y.mod(NUM[2]):NUM[1]);
 			
-			String rs = r.toString(16), ss = s.toString(16);
-			while(ss.length() < 32)
-				ss = '0'+ss;
-			return rs+ss+'0'+v.toString(16);
-		} catch(NoSuchAlgorithmException e) {
-			throw new java.lang.RuntimeException(e);
+			BigInteger v = y.mod(NUM[2]).xor(sRaw.multiply(NUM[2]).compareTo(N) < 0?NUM[0]:NUM[1]);
+			return new BigInteger[] {r, s, v};
+		} finally {
+			Metrics.stop(curve, Metrics.Operation.SIGN, t0, sc);
 		}
 	}
 	
 
+	/**
+	 * Nonce of RFC 6979 section 3.2 with HMAC-SHA256, random bytes are added to the seed as section 3.6 allows.
+	 * 
+	 * @param privOctets private key mod N in octets of the length of N.
+	 * @param extra additional seed, null for the deterministic nonce.
+	 * 
+	 * @return nonce in range [1,N).
+	 * */
+	BigInteger nonce(byte[] privOctets, byte[] hashBytes, byte[] extra) {
+		int rlen = (N.bitLength()+7)>>3;
+		HmacDrbg drbg = HmacDrbg.get();
+		drbg.seed(privOctets, int2octets(bits2int(hashBytes).mod(N), rlen), extra);
+		byte[] t = new byte[rlen];
+		try {
+			while(true) {
+				drbg.generate(t);
+				BigInteger n = bits2int(t);
+				if(n.signum() > 0 && n.compareTo(N) < 0)
+					return n;
+				drbg.update();
+			}
+		} finally {
+			Metrics.count(Metrics.Work.HMAC, drbg.macs());
+			drbg.clear();
+		}
+	}
+	
+	/**
+	 * @return leftmost bits of bs, as many as N has.
+	 * */
+	BigInteger bits2int(byte[] bs) {
+		BigInteger n = new BigInteger(1, bs);
+		int extra = (bs.length<<3)-N.bitLength();
+		return extra > 0?n.shiftRight(extra):n;
+	}
+	
+	static byte[] int2octets(BigInteger n, int len) {
+		byte[] out = new byte[len];
+		SignatureUtil.putUnsigned(ByteBuffer.wrap(out), 0, n, len);
+		return out;
+	}
+	
 	/**
 	 * @param pubKeyBytes public key content bytes.
 	 * @param hashBytes hash content bytes.
@@ -121,59 +383,486 @@ public class Ecdsa {
 	public boolean verify(byte[] pubKeyBytes, byte[] hashBytes, String sig) {
 		if(sig.length() != 130)
 			throw new java.lang.RuntimeException("Invalid signature, "+sig);
-		if(pubKeyBytes.length != 64)
-			throw new java.lang.RuntimeException("Invalid publickKey.");
 		
 		BigInteger r = new BigInteger(sig.substring(0,64),16), s = new BigInteger(sig.substring(64,128),16);
-		if(r.mod(N).equals(NUM[0]) || s.mod(N).equals(NUM[0]))
-			return false;
-		
-		byte[] xBytes = new byte[32], yBytes = new byte[32];
-		System.arraycopy(pubKeyBytes, 0, xBytes, 0, 32);
-		System.arraycopy(pubKeyBytes, 32, yBytes, 0, 32);
-		BigInteger x = NumberUtil.bytesToBigInt(xBytes), y = NumberUtil.bytesToBigInt(yBytes);
+		BigInteger[] q = readPublicKey(ByteBuffer.wrap(pubKeyBytes));
+		return verifyRaw(q[0], q[1], NumberUtil.bytesToBigInt(hashBytes), r, s);
+	}
+	
+	/**
+	 * @param pubKeyBytes raw or SEC1 public key, pubLen bytes at pubOff.
+	 * @param hashBytes hash content, hashLen bytes at hashOff.
+	 * @param sig compact signature, sigLen bytes at sigOff, the recovery byte is optional.
+	 * 
+	 * @return if the hash content has been falsified, return false.
+	 * */
+	public boolean verify(byte[] pubKeyBytes, int pubOff, int pubLen, byte[] hashBytes, int hashOff, int hashLen, 
+			byte[] sig, int sigOff, int sigLen) {
+		return verify(ByteBuffer.wrap(pubKeyBytes, pubOff, pubLen), ByteBuffer.wrap(hashBytes, hashOff, hashLen), 
+				ByteBuffer.wrap(sig, sigOff, sigLen));
+	}
+	
+	/**
+	 * Buffers are read between position and limit, their positions are left as they are.
+	 * 
+	 * @param pubKey raw 64 bytes or SEC1 public key.
+	 * @param hash hash content.
+	 * @param sig compact signature, 64 bytes r and s or 65 bytes with the recovery byte.
+	 * 
+	 * @return if the hash content has been falsified, return false.
+	 * */
+	public boolean verify(ByteBuffer pubKey, ByteBuffer hash, ByteBuffer sig) {
+		BigInteger[] q = readPublicKey(pubKey), rs = SignatureUtil.getCompact(sig);
+		return verifyRaw(q[0], q[1], SignatureUtil.getUnsigned(hash, hash.position(), hash.remaining()), rs[0], rs[1]);
+	}
+	
+	/**
+	 * @param key public key handle of this curve, see publicKeyHandle.
+	 * @param hashBytes hash content bytes.
+	 * @param sig signature content.
+	 * 
+	 * @return if the hash content has been falsified, return false.
+	 * */
+	public boolean verify(PublicKeyHandle key, byte[] hashBytes, String sig) {
+		if(sig.length() != 130)
+			throw new java.lang.RuntimeException("Invalid signature, "+sig);
 		
-		BigInteger w = inv(s, N);
-		BigInteger z = NumberUtil.bytesToBigInt(hashBytes);
+		checkCurve(key.curve);
+		BigInteger r = new BigInteger(sig.substring(0,64),16), s = new BigInteger(sig.substring(64,128),16);
+		return verifyRaw(key.point, key.odd, key.width, NumberUtil.bytesToBigInt(hashBytes), r, s);
+	}
+	
+	/**
+	 * Buffers are read between position and limit, their positions are left as they are.
+	 * 
+	 * @param key public key handle of this curve, see publicKeyHandle.
+	 * @param hash hash content.
+	 * @param sig compact signature, 64 bytes r and s or 65 bytes with the recovery byte.
+	 * 
+	 * @return if the hash content has been falsified, return false.
+	 * */
+	public boolean verify(PublicKeyHandle key, ByteBuffer hash, ByteBuffer sig) {
+		checkCurve(key.curve);
+		BigInteger[] rs = SignatureUtil.getCompact(sig);
+		return verifyRaw(key.point, key.odd, key.width, SignatureUtil.getUnsigned(hash, hash.position(), hash.remaining()), 
+				rs[0], rs[1]);
+	}
+	
+	/**
+	 * @param registry registry of public keys of this curve.
+	 * @param key handle of the public key, see KeyRegistry.find.
+	 * @param hashBytes hash content bytes.
+	 * @param sig signature content.
+	 * 
+	 * @return if the hash content has been falsified, return false.
+	 * */
+	public boolean verify(KeyRegistry registry, int key, byte[] hashBytes, String sig) {
+		if(sig.length() != 130)
+			throw new java.lang.RuntimeException("Invalid signature, "+sig);
 		
-		BigInteger u1 = z.multiply(w).mod(N), u2 = r.multiply(w).mod(N);
+		BigInteger r = new BigInteger(sig.substring(0,64),16), s = new BigInteger(sig.substring(64,128),16);
+		return verifyRaw(registry, key, NumberUtil.bytesToBigInt(hashBytes), r, s);
+	}
+	
+	/**
+	 * Buffers are read between position and limit, their positions are left as they are.
+	 * 
+	 * @param registry registry of public keys of this curve.
+	 * @param key handle of the public key, see KeyRegistry.find.
+	 * @param hash hash content.
+	 * @param sig compact signature, 64 bytes r and s or 65 bytes with the recovery byte.
+	 * 
+	 * @return if the hash content has been falsified, return false.
+	 * */
+	public boolean verify(KeyRegistry registry, int key, ByteBuffer hash, ByteBuffer sig) {
+		BigInteger[] rs = SignatureUtil.getCompact(sig);
+		return verifyRaw(registry, key, SignatureUtil.getUnsigned(hash, hash.position(), hash.remaining()), rs[0], rs[1]);
+	}
+	
+	private boolean verifyRaw(KeyRegistry registry, int key, BigInteger z, BigInteger r, BigInteger s) {
+		if(registry.curve != curve)
+			throw new java.lang.RuntimeException("Invalid registry, its keys are on "+registry.curve+".");
+		return verifyRaw(registry.point(key), registry.oddMultiples(key), registry.width, z, r, s);
+	}
+	
+	/**
+	 * Same as verify(ByteBuffer, ByteBuffer, ByteBuffer) with a DER encoded signature.
+	 * */
+	public boolean verifyDer(ByteBuffer pubKey, ByteBuffer hash, ByteBuffer sig) {
+		BigInteger[] q = readPublicKey(pubKey), rs = SignatureUtil.getDer(sig);
+		return verifyRaw(q[0], q[1], SignatureUtil.getUnsigned(hash, hash.position(), hash.remaining()), rs[0], rs[1]);
+	}
+	
+	/**
+	 * @param x x coordinate of the public key.
+	 * @param y y coordinate of the public key.
+	 * @param z hash.
+	 * 
+	 * @return if (r, s) is a signature of z by the key.
+	 * */
+	boolean verifyRaw(BigInteger x, BigInteger y, BigInteger z, BigInteger r, BigInteger s) {
+		long t0 = Metrics.start();
+		Field.Scratch sc = F.scratch();
+		try {
+			if(r.mod(N).equals(NUM[0]) || s.mod(N).equals(NUM[0]))
+				return false;
 		
-		BigInteger[] p = fastMultiply(Gx,Gy,NUM[1],u1);
-		BigInteger pz = inv(p[2],P);
-		BigInteger px = pz.pow(2).multiply(p[0]).mod(P), py = pz.pow(3).multiply(p[1]).mod(P);
+			BigInteger w = inv(s, N);
 		
-		BigInteger[] q = fastMultiply(x,y,NUM[1],u2);
-		BigInteger qz = inv(q[2],P);
-		BigInteger qx = qz.pow(2).multiply(q[0]).mod(P), qy = qz.pow(3).multiply(q[1]).mod(P);
+			BigInteger u1 = z.multiply(w).mod(N), u2 = r.multiply(w).mod(N);
 		
-		BigInteger[] g = fastAdd(px, py, NUM[1], qx, qy, NUM[1]);
-		BigInteger gz = inv(g[2],P);
-		BigInteger gx = gz.pow(2).multiply(g[0]).mod(P);
+			FixedBaseTable t = keyTables == null?null:keyTable(x, y);
+			int[][] sum;
+			if(t != null) {
+				sum = fastBaseMultiply(u1, sc);
+				fastAdd(sum, sum, t.multiply(this, u2, sc), sc);
+			} else
+				sum = fastJointMultiply(u1, toPoint(x, y), u2, sc);
+			BigInteger[] g = toAffine(sum, sc);
+			if(g == null)
+				return false;
 		
-		return r.equals(gx);
+			return r.equals(g[0]);
+		} finally {
+			Metrics.stop(curve, Metrics.Operation.VERIFY, t0, sc);
+		}
+	}
+	
+	/**
+	 * verifyRaw for a public key already in field form, as KeyRegistry keeps it.
+	 * 
+	 * @param q public key point, z = 1.
+	 * @param odd odd multiples of q with z = 1, null to build them here.
+	 * @param width wNAF width of odd.
+	 * 
+	 * @return if (r, s) is a signature of z by the key.
+	 * */
+	boolean verifyRaw(int[][] q, int[][][] odd, int width, BigInteger z, BigInteger r, BigInteger s) {
+		long t0 = Metrics.start();
+		Field.Scratch sc = F.scratch();
+		try {
+			if(r.mod(N).equals(NUM[0]) || s.mod(N).equals(NUM[0]))
+				return false;
+			
+			BigInteger w = inv(s, N);
+			
+			BigInteger u1 = z.multiply(w).mod(N), u2 = r.multiply(w).mod(N);
+			
+			int[][] sum = odd == null?fastJointMultiply(u1, q, u2, sc):fastJointMultiply(u1, odd, width, u2, sc);
+			BigInteger[] g = toAffine(sum, sc);
+			if(g == null)
+				return false;
+			
+			return r.equals(g[0]);
+		} finally {
+			Metrics.stop(curve, Metrics.Operation.VERIFY, t0, sc);
+		}
+	}
+	
+	/**
+	 * The table of a key is built on the common pool once the key is admitted, the verification which 
+	 * admits it and those running meanwhile keep the joint multiplication.
+	 * 
+	 * @return fixed-base table of public key (x, y), null while the key is not seen often enough or its table is not built yet.
+	 * */
+	FixedBaseTable keyTable(BigInteger x, BigInteger y) {
+		BigInteger key = x.shiftLeft(SignatureUtil.SCALAR_LENGTH<<3).or(y);
+		FixedBaseTable t = keyTables.get(key);
+		if(t != null)
+			return t;
+		int[] seen = keySeen.get(key);
+		if(seen == null) {
+			keySeen.put(key, new int[] {1});
+			return null;
+		}
+		synchronized(seen) {
+			//only the sighting reaching KEY_CACHE_ADMIT schedules the build
+			if(++seen[0] != KEY_CACHE_ADMIT)
+				return null;
+		}
+		ForkJoinPool.commonPool().execute(() -> {
+			try {
+				keyTables.put(key, new FixedBaseTable(this, toPoint(x, y), false));
+			} finally {
+				//counting starts again, a table evicted later is built again after KEY_CACHE_ADMIT misses
+				synchronized(seen) {
+					seen[0] = 0;
+				}
+			}
+		});
+		return null;
 	}
 	
 
+	/**
+	 * Verify many signatures at once. Each signature is checked through its point R, which is rebuilt from r and 
+	 * the recovery byte, with a random linear combination of all the equations u1*G + u2*Q - R = 0. 
+	 * If the combination does not hold, every signature is verified one by one.
+	 * 
+	 * @param pubKeysBytes public keys content bytes.
+	 * @param hashesBytes hash contents bytes.
+	 * @param sigs signatures content.
+	 * 
+	 * @return result of every signature, same order as sigs, malformed inputs are false.
+	 * */
+	public boolean[] verifyBatch(byte[][] pubKeysBytes, byte[][] hashesBytes, String[] sigs) {
+		int n = sigs.length;
+		if(pubKeysBytes.length != n || hashesBytes.length != n)
+			throw new java.lang.RuntimeException("Invalid batch, lengths of public keys, hashes and signatures differ.");
+		
+		boolean[] out = new boolean[n];
+		if(n < BATCH_MIN) {
+			for(int i = 0; i < n; ++i)
+				out[i] = verifyOne(pubKeysBytes[i], hashesBytes[i], sigs[i]);
+			return out;
+		}
+		
+		//well formed signatures first, their points R are lifted together
+		int[] parsed = new int[n];
+		BigInteger[] rs = new BigInteger[n], ss = new BigInteger[n];
+		boolean[] odd = new boolean[n];
+		BigInteger[][] qs = new BigInteger[n][];
+		int k = 0;
+		for(int i = 0; i < n; ++i) {
+			String sig = sigs[i];
+			byte[] pubKeyBytes = pubKeysBytes[i];
+			if(sig == null || sig.length() != 130 || pubKeyBytes == null)
+				continue;
+			BigInteger r, s, v;
+			BigInteger[] q;
+			try {
+				r = new BigInteger(sig.substring(0,64),16);
+				s = new BigInteger(sig.substring(64,128),16);
+				q = readPublicKey(ByteBuffer.wrap(pubKeyBytes));
+			} catch(RuntimeException e) {
+				continue;
+			}
+			try {
+				v = new BigInteger(sig.substring(128,130),16);
+			} catch(NumberFormatException e) {
+				//verify ignores the recovery byte, without it R cannot be lifted and the item is checked alone
+				out[i] = verifyOne(pubKeyBytes, hashesBytes[i], sig);
+				continue;
+			}
+			if(r.mod(N).equals(NUM[0]) || s.mod(N).equals(NUM[0]) || r.compareTo(P) >= 0)
+				continue;
+			parsed[k] = i;
+			rs[k] = r;
+			ss[k] = s;
+			odd[k] = v.testBit(0);
+			qs[k++] = q;
+		}
+		BigInteger[] rys = liftX(Arrays.copyOf(rs, k), Arrays.copyOf(odd, k));
+		
+		int[] batch = new int[n];
+		int[][][] points = new int[n<<1][][];
+		BigInteger[] scalars = new BigInteger[n<<1];
+		BigInteger g = NUM[0];
+		int m = 0;
+		for(int j = 0; j < k; ++j) {
+			int i = parsed[j];
+			BigInteger r = rs[j], ry = rys[j];
+			if(ry == null) {
+				out[i] = verifyOne(pubKeysBytes[i], hashesBytes[i], sigs[i]);
+				continue;
+			}
+			
+			BigInteger x = qs[j][0], y = qs[j][1];
+			BigInteger w = inv(ss[j], N);
+			BigInteger z = NumberUtil.bytesToBigInt(hashesBytes[i]);
+			//random coefficients must not be predictable by a signer
+			BigInteger a = m == 0?NUM[1]:new BigInteger(128, CLGRandom.generator()).setBit(0);
+			
+			//a*(u1*G + u2*Q - R)
+			g = g.add(a.multiply(z).multiply(w)).mod(N);
+			points[m<<1] = toPoint(x, y);
+			scalars[m<<1] = a.multiply(r).multiply(w).mod(N);
+			points[(m<<1)+1] = toPoint(r, P.subtract(ry));
+			scalars[(m<<1)+1] = a;
+			batch[m++] = i;
+		}
+		
+		if(m > 0) {
+			Field.Scratch sc = F.scratch();
+			int[][] sum = fastMultiMultiply(Arrays.copyOf(points, m<<1), Arrays.copyOf(scalars, m<<1), sc);
+			fastAdd(sum, sum, fastBaseMultiply(g, sc), sc);
+			boolean ok = F.isZero(sum[2]);
+			for(int j = 0; j < m; ++j)
+				out[batch[j]] = ok || verifyOne(pubKeysBytes[batch[j]], hashesBytes[batch[j]], sigs[batch[j]]);
+			Metrics.work(sc);
+		}
+		return out;
+	}
+	
+	boolean verifyOne(byte[] pubKeyBytes, byte[] hashBytes, String sig) {
+		try {
+			return verify(pubKeyBytes, hashBytes, sig);
+		} catch(RuntimeException e) {
+			return false;
+		}
+	}
+	
 	/**
 	 * @param privKeyBytes private key content bytes.
 	 * 
 	 * @return bytes calculate public key bytes from private key bytes.
 	 * */
 	public byte[] privateKeyToPublicKey(byte[] privKeyBytes) {
+		return privateKeyToPublicKey(privKeyBytes, KeyFormat.RAW);
+	}
+	
+	/**
+	 * @param privKeyBytes private key content bytes.
+	 * @param format encoding of the public key.
+	 * 
+	 * @return bytes calculate public key bytes from private key bytes.
+	 * */
+	public byte[] privateKeyToPublicKey(byte[] privKeyBytes, KeyFormat format) {
+		BigInteger[] p = publicPoint(NumberUtil.bytesToBigInt(privKeyBytes));
+		return encodePublicKey(p[0], p[1], format);
+	}
+	
+	/**
+	 * Decode a private key once for many signatures, the handle keeps its public key too.
+	 * 
+	 * @param privKeyBytes private key content bytes, in range [1,N).
+	 * 
+	 * @return handle accepted by sign.
+	 * */
+	public PrivateKeyHandle privateKeyHandle(byte[] privKeyBytes) {
 		BigInteger priv = NumberUtil.bytesToBigInt(privKeyBytes);
-		if(priv.compareTo(N) > 0)
+		if(priv.signum() == 0 || priv.compareTo(N) >= 0)
 			throw new java.lang.RuntimeException("Invalid private key.");
+		BigInteger[] p = publicPoint(priv);
+		return new PrivateKeyHandle(curve, priv, int2octets(priv, (N.bitLength()+7)>>3), new PublicKeyHandle(this, p[0], p[1]));
+	}
+	
+	/**
+	 * Decode and check a public key once for many verifications.
+	 * 
+	 * @param pubKeyBytes raw, SEC1 uncompressed or SEC1 compressed public key.
+	 * 
+	 * @return handle accepted by verify.
+	 * */
+	public PublicKeyHandle publicKeyHandle(byte[] pubKeyBytes) {
+		BigInteger[] q = readPublicKey(ByteBuffer.wrap(pubKeyBytes));
+		if(!isOnCurve(q[0], q[1]))
+			throw new java.lang.RuntimeException("Invalid public key, it is not on "+curve);
+		return new PublicKeyHandle(this, q[0], q[1]);
+	}
+	
+	/**
+	 * @return if (x, y) is a point of the curve with both coordinates in range [0,P).
+	 * */
+	boolean isOnCurve(BigInteger x, BigInteger y) {
+		return x.signum() >= 0 && y.signum() >= 0 && x.compareTo(P) < 0 && y.compareTo(P) < 0 
+				&& y.multiply(y).subtract(x.pow(3).add(x.multiply(A)).add(B)).mod(P).signum() == 0;
+	}
+	
+	void checkCurve(Curve c) {
+		if(c != curve)
+			throw new java.lang.RuntimeException("Invalid key, it is on "+c+" and not on "+curve);
+	}
+	
+	/**
+	 * @param pubKeyBytes raw, SEC1 uncompressed or SEC1 compressed public key.
+	 * @param format wanted encoding.
+	 * 
+	 * @return the same public key in format.
+	 * */
+	public byte[] convertPublicKey(byte[] pubKeyBytes, KeyFormat format) {
+		BigInteger[] q = readPublicKey(ByteBuffer.wrap(pubKeyBytes));
+		return encodePublicKey(q[0], q[1], format);
+	}
+	
+	/**
+	 * The private key is read between position and limit, its position is left as it is, 
+	 * out is written at its position which then moves past the key.
+	 * 
+	 * @param privKey private key content.
+	 * @param out receives the public key.
+	 * @param format encoding of the public key.
+	 * 
+	 * @return bytes written, format.getLength().
+	 * */
+	public int privateKeyToPublicKey(ByteBuffer privKey, ByteBuffer out, KeyFormat format) {
+		BigInteger[] p = publicPoint(SignatureUtil.getUnsigned(privKey, privKey.position(), privKey.remaining()));
+		int n = SignatureUtil.putPublicKey(out, out.position(), p[0], p[1], format);
+		out.position(out.position()+n);
+		return n;
+	}
+	
+	/**
+	 * @return {x, y} of priv*G.
+	 * */
+	BigInteger[] publicPoint(BigInteger priv) {
+		long t0 = Metrics.start();
+		Field.Scratch sc = F.scratch();
+		try {
+			if(priv.compareTo(N) > 0)
+				throw new java.lang.RuntimeException("Invalid private key.");
 
-		BigInteger[] p = fastMultiply(Gx,Gy,NUM[1],priv);
-		BigInteger z = inv(p[2],P);
-		BigInteger x = z.pow(2).multiply(p[0]).mod(P), y = z.pow(3).multiply(p[1]).mod(P);
-		byte[] xBs = NumberUtil.bigIntToBytes(x), yBs = NumberUtil.bigIntToBytes(y);
-		byte[] pubKeyBytes = new byte[64];
-		System.arraycopy(xBs, 0, pubKeyBytes, 0, xBs.length);
-		System.arraycopy(yBs, 0, pubKeyBytes, 32, yBs.length);
-		return pubKeyBytes;
+			BigInteger[] p = toAffine(fastBaseMultiply(priv, sc), sc);
+			if(p == null)
+				throw new java.lang.RuntimeException("Invalid private key.");
+			return p;
+		} finally {
+			Metrics.stop(curve, Metrics.Operation.PUBLIC_KEY, t0, sc);
+		}
 	}
 
+	/**
+	 * @param privKeysBytes private keys content bytes.
+	 * 
+	 * @return public key bytes of every private key, same order, all points share one inversion.
+	 * */
+	public byte[][] privateKeysToPublicKeys(byte[][] privKeysBytes) {
+		return privateKeysToPublicKeys(privKeysBytes, KeyFormat.RAW);
+	}
+	
+	/**
+	 * @param privKeysBytes private keys content bytes.
+	 * @param format encoding of the public keys.
+	 * 
+	 * @return public key bytes of every private key, same order, all points share one inversion.
+	 * */
+	public byte[][] privateKeysToPublicKeys(byte[][] privKeysBytes, KeyFormat format) {
+		Field.Scratch sc = F.scratch();
+		BigInteger[] privs = new BigInteger[privKeysBytes.length];
+		for(int i = 0; i < privs.length; ++i) {
+			privs[i] = NumberUtil.bytesToBigInt(privKeysBytes[i]);
+			if(privs[i].signum() == 0 || privs[i].compareTo(N) >= 0)
+				throw new java.lang.RuntimeException("Invalid private key.");
+		}
+		int[][][] points = new int[privs.length][][];
+		LaneField lanes = curve.laneField();
+		if(lanes != null && privs.length >= lanes.lanes)
+			lanes.multiply(curve.baseTable(this), privs, points);
+		for(int i = 0; i < points.length; ++i)
+			if(points[i] == null)
+				points[i] = fastBaseMultiply(privs[i], sc);
+		normalizeAll(points, sc);
+		Metrics.work(sc);
+		byte[][] out = new byte[points.length][];
+		for(int i = 0; i < points.length; ++i)
+			out[i] = encodePublicKey(F.toBigInt(points[i][0]), F.toBigInt(points[i][1]), format);
+		return out;
+	}
+	
+	/**
+	 * Public keys of the consecutive private keys start, start+1, ..., start+count-1. Each key costs one 
+	 * addition of G instead of a multiplication, and blocks of keys share one inversion.
+	 * 
+	 * @param startPrivKeyBytes first private key content bytes.
+	 * @param count number of keys.
+	 * @param format encoding of the public keys.
+	 * 
+	 * @return the range, walked by its forEach and stream methods.
+	 * */
+	public KeyRange publicKeyRange(byte[] startPrivKeyBytes, long count, KeyFormat format) {
+		return new KeyRange(this, NumberUtil.bytesToBigInt(startPrivKeyBytes), count, format);
+	}
+	
 	/**
 	 * @param hashBytes hash content bytes.
 	 * @param sig signature content.
@@ -181,42 +870,221 @@ public class Ecdsa {
 	 * @return bytes calculate public key bytes from signature and hash.
 	 * */
 	public byte[] recoverToPublicKey(byte[] hashBytes, String sig) {
+		return recoverToPublicKey(hashBytes, sig, KeyFormat.RAW);
+	}
+	
+	/**
+	 * @param hashBytes hash content bytes.
+	 * @param sig signature content.
+	 * @param format encoding of the public key.
+	 * 
+	 * @return bytes calculate public key bytes from signature and hash.
+	 * */
+	public byte[] recoverToPublicKey(byte[] hashBytes, String sig, KeyFormat format) {
 		if(sig.length() != 130)
 			throw new java.lang.RuntimeException("Invalid signature, "+sig);
-		BigInteger _27 = new BigInteger("27"), _34 = new BigInteger("34");
 		BigInteger r = new BigInteger(sig.substring(0,64),16), s = new BigInteger(sig.substring(64,128),16);
-		if(r.mod(N).equals(NUM[0]) || s.mod(N).equals(NUM[0]))
+		BigInteger v = new BigInteger(sig.substring(128, 130),16);
+		BigInteger[] Q = recoverRaw(NumberUtil.bytesToBigInt(hashBytes), r, s, v);
+		if(Q == null)
 			throw new java.lang.RuntimeException("Invalid signature, "+sig);
-		
-		BigInteger v = new BigInteger(sig.substring(128, 130),16).add(_27);
-		if(v.compareTo(_27)<0 || v.compareTo(_34)>0)
+		return encodePublicKey(Q[0], Q[1], format);
+	}
+	
+	/**
+	 * @param hashBytes hash content bytes.
+	 * @param sig signature content.
+	 * 
+	 * @return handle of the public key which made the signature, compare it with equals or verify more signatures with it.
+	 * */
+	public PublicKeyHandle recoverToPublicKeyHandle(byte[] hashBytes, String sig) {
+		if(sig.length() != 130)
+			throw new java.lang.RuntimeException("Invalid signature, "+sig);
+		BigInteger r = new BigInteger(sig.substring(0,64),16), s = new BigInteger(sig.substring(64,128),16);
+		BigInteger v = new BigInteger(sig.substring(128, 130),16);
+		BigInteger[] Q = recoverRaw(NumberUtil.bytesToBigInt(hashBytes), r, s, v);
+		if(Q == null)
 			throw new java.lang.RuntimeException("Invalid signature, "+sig);
+		return new PublicKeyHandle(this, Q[0], Q[1]);
+	}
+	
+	/**
+	 * Buffers are read between position and limit, their positions are left as they are, 
+	 * out is written at its position which then moves past the key.
+	 * 
+	 * @param hash hash content.
+	 * @param sig compact signature r, s and v, 65 bytes.
+	 * @param out receives the public key.
+	 * @param format encoding of the public key.
+	 * 
+	 * @return bytes written, format.getLength().
+	 * */
+	public int recoverToPublicKey(ByteBuffer hash, ByteBuffer sig, ByteBuffer out, KeyFormat format) {
+		BigInteger[] rs = SignatureUtil.getCompact(sig);
+		if(rs[2] == null)
+			throw new java.lang.RuntimeException("Invalid signature, recovery byte is missing.");
+		BigInteger[] Q = recoverRaw(SignatureUtil.getUnsigned(hash, hash.position(), hash.remaining()), rs[0], rs[1], rs[2]);
+		if(Q == null)
+			throw new java.lang.RuntimeException("Invalid signature.");
+		int n = SignatureUtil.putPublicKey(out, out.position(), Q[0], Q[1], format);
+		out.position(out.position()+n);
+		return n;
+	}
+	
+	/**
+	 * @param hashBytes hash content, hashLen bytes at hashOff.
+	 * @param sig compact signature r, s and v, 65 bytes at sigOff.
+	 * @param out receives the public key at outOff.
+	 * @param format encoding of the public key.
+	 * 
+	 * @return bytes written, format.getLength().
+	 * */
+	public int recoverToPublicKey(byte[] hashBytes, int hashOff, int hashLen, byte[] sig, int sigOff, 
+			byte[] out, int outOff, KeyFormat format) {
+		return recoverToPublicKey(ByteBuffer.wrap(hashBytes, hashOff, hashLen), 
+				ByteBuffer.wrap(sig, sigOff, SignatureUtil.COMPACT_LENGTH), ByteBuffer.wrap(out, outOff, format.length), format);
+	}
+	
+	/**
+	 * @param z hash.
+	 * @param v recovery byte.
+	 * 
+	 * @return {x, y} of the public key, null if there is none.
+	 * */
+	BigInteger[] recoverRaw(BigInteger z, BigInteger r, BigInteger s, BigInteger v) {
+		long t0 = Metrics.start();
+		Field.Scratch sc = F.scratch();
+		try {
+			BigInteger _27 = new BigInteger("27"), _34 = new BigInteger("34");
+			if(r.mod(N).equals(NUM[0]) || s.mod(N).equals(NUM[0]))
+				return null;
+			v = v.add(_27);
+			if(v.compareTo(_27)<0 || v.compareTo(_34)>0)
+				return null;
 		
-		BigInteger x = r;
+			BigInteger x = r;
+			BigInteger y = liftX(x, !v.testBit(0));
+			if(y == null)
+				return null;
+		
+			BigInteger rInv = inv(r,N);
+			BigInteger u1 = N.subtract(z.mod(N)).multiply(rInv).mod(N), u2 = s.multiply(rInv).mod(N);
+			return toAffine(fastJointMultiply(u1, toPoint(x, y), u2, sc), sc);
+		} finally {
+			Metrics.stop(curve, Metrics.Operation.RECOVER, t0, sc);
+		}
+	}
+	
+	/**
+	 * @param x x coordinate.
+	 * @param odd parity of the wanted y coordinate.
+	 * 
+	 * @return y coordinate with y^2 = x^3 + a*x + b (mod = P), null if x is not on the curve.
+	 * */
+	BigInteger liftX(BigInteger x, boolean odd) {
 		BigInteger num = x.pow(3).add(x.multiply(A).add(B)).mod(P);
 		
-		BigInteger y = num.modPow(P.add(NUM[1]).divide(NUM[4]),P);
-		if(y.mod(NUM[2]).xor(v.mod(NUM[2])).equals(NUM[0]))
+		BigInteger y = sqrt(num);
+		if(y == null)
+			return null;
+		if(y.testBit(0) != odd && y.signum() != 0)
 			y = P.subtract(y);
+		return y;
+	}
+	
+	/**
+	 * liftX of every x, the square roots are taken on vector lanes when the curve has them.
+	 * 
+	 * @return y coordinates, null where x is not on the curve.
+	 * */
+	BigInteger[] liftX(BigInteger[] xs, boolean[] odd) {
+		BigInteger[] ys = new BigInteger[xs.length];
+		LaneField lanes = curve.laneField();
+		if(lanes == null || sqrtE != 1 || xs.length < lanes.lanes) {
+			for(int i = 0; i < xs.length; ++i)
+				ys[i] = liftX(xs[i], odd[i]);
+			return ys;
+		}
+		BigInteger[] nums = new BigInteger[xs.length];
+		for(int i = 0; i < xs.length; ++i)
+			nums[i] = xs[i].pow(3).add(xs[i].multiply(A).add(B)).mod(P);
+		BigInteger[] roots = lanes.pow(nums, P.add(NUM[1]).divide(NUM[4]));
+		for(int i = 0; i < xs.length; ++i) {
+			BigInteger y = roots[i];
+			if(!y.multiply(y).mod(P).equals(nums[i]))
+				continue;
+			if(y.testBit(0) != odd[i] && y.signum() != 0)
+				y = P.subtract(y);
+			ys[i] = y;
+		}
+		return ys;
+	}
+	
+	/**
+	 * @return a square root of a (mod = P), null if a is not a square.
+	 * */
+	BigInteger sqrt(BigInteger a) {
+		a = a.mod(P);
+		if(a.signum() == 0)
+			return a;
+		if(sqrtE == 1) {
+			BigInteger y = a.modPow(P.add(NUM[1]).divide(NUM[4]), P);
+			return y.multiply(y).mod(P).equals(a)?y:null;
+		}
 		
-		if(!y.pow(2).subtract(num).mod(P).equals(NUM[0]))
-			throw new java.lang.RuntimeException("Invalid signature, "+sig);
-		
-		BigInteger z = NumberUtil.bytesToBigInt(hashBytes);
-		BigInteger[] GZ = fastMultiply(Gx,Gy,NUM[1],N.subtract(z).mod(N));
-		BigInteger[] XY = fastMultiply(x,y,NUM[1],s);
-		
-		BigInteger[] QR = fastAdd(GZ[0],GZ[1],GZ[2], XY[0],XY[1],XY[2]);
-		BigInteger[] Q = fastMultiply(QR[0],QR[1],QR[2],inv(r,N));
-		
-		BigInteger pubZ = inv(Q[2],P);
-		BigInteger left = pubZ.pow(2).multiply(Q[0]).mod(P), right = pubZ.pow(3).multiply(Q[1]).mod(P);
+		//Tonelli-Shanks, b = a^q stays in the subgroup of order 2^e which shrinks every round
+		BigInteger x = a.modPow(sqrtQ.add(NUM[1]).shiftRight(1), P), b = a.modPow(sqrtQ, P), g = sqrtZ;
+		int e = sqrtE;
+		while(!b.equals(NUM[1])) {
+			int m = 0;
+			for(BigInteger t = b; !t.equals(NUM[1]); t = t.multiply(t).mod(P))
+				if(++m == e)
+					return null;
+			BigInteger t = g;
+			for(int i = 0; i < e-m-1; ++i)
+				t = t.multiply(t).mod(P);
+			x = x.multiply(t).mod(P);
+			g = t.multiply(t).mod(P);
+			b = b.multiply(g).mod(P);
+			e = m;
+		}
+		return x;
+	}
+	
+	/**
+	 * Buffers are read between position and limit, their positions are left as they are.
+	 * 
+	 * @param b raw 64 bytes, SEC1 uncompressed 65 bytes or SEC1 compressed 33 bytes public key.
+	 * 
+	 * @return {x, y}, compressed keys are decompressed through the cache of the curve.
+	 * */
+	BigInteger[] readPublicKey(ByteBuffer b) {
+		int off = b.position();
+		if(b.remaining() != KeyFormat.COMPRESSED.length)
+			return SignatureUtil.getPublicKey(b);
+		byte prefix = b.get(off);
+		if(prefix != SignatureUtil.SEC1_EVEN && prefix != SignatureUtil.SEC1_ODD)
+			throw new java.lang.RuntimeException("Invalid public key.");
 		
-		byte[] leftBs = NumberUtil.bigIntToBytes(left), rightBs = NumberUtil.bigIntToBytes(right);
-		byte[] pubBytes = new byte[leftBs.length+rightBs.length];
-		System.arraycopy(leftBs, 0, pubBytes, 0, leftBs.length);
-		System.arraycopy(rightBs, 0, pubBytes, leftBs.length, rightBs.length);
-		return pubBytes;
+		BigInteger key = SignatureUtil.getUnsigned(b, off, KeyFormat.COMPRESSED.length);
+		BigInteger x = SignatureUtil.getUnsigned(b, off+1, SignatureUtil.SCALAR_LENGTH);
+		BigInteger y = curve.decompressed.get(key);
+		if(y == null) {
+			y = x.compareTo(P) < 0?liftX(x, prefix == SignatureUtil.SEC1_ODD):null;
+			if(y == null)
+				throw new java.lang.RuntimeException("Invalid public key.");
+			curve.decompressed.put(key, y);
+		}
+		return new BigInteger[] {x, y};
+	}
+	
+	/**
+	 * @return public key of point (x, y) in format.
+	 * */
+	static byte[] encodePublicKey(BigInteger x, BigInteger y, KeyFormat format) {
+		byte[] out = new byte[format.length];
+		SignatureUtil.putPublicKey(ByteBuffer.wrap(out), 0, x, y, format);
+		return out;
 	}
 	
 	BigInteger quickPow(BigInteger n, BigInteger m, BigInteger mod) {
@@ -229,58 +1097,553 @@ public class Ecdsa {
 		return n.multiply(r).mod(mod);
 	}
 	
-	BigInteger[] fastMultiply(BigInteger a0, BigInteger a1, BigInteger a2, BigInteger n) {
-		if(a1.equals(NUM[0]) || n.equals(NUM[0]))
-			return new BigInteger[]{NUM[0],NUM[0],NUM[1]};
-		if(n.equals(NUM[1]))
-	        return new BigInteger[]{a0,a1,a2};
+	/**
+	 * @param p point in jacobian coordinates.
+	 * @param n scalar.
+	 * @param s temporaries.
+	 * 
+	 * @return n*p in jacobian coordinates.
+	 * */
+	int[][] fastMultiply(int[][] p, BigInteger n, Field.Scratch s) {
 		if(n.signum() < 0 || n.compareTo(N) >= 0) 
-			return fastMultiply(a0,a1,a2,n.mod(N));
-
-		BigInteger[] a = fastMultiply(a0, a1, a2, n.shiftRight(1));
-		BigInteger[] p = fastDouble(a[0],a[1],a[2]);
-		if(n.mod(NUM[2]).equals(NUM[0])) {
-			return p;
-		} else if(n.mod(NUM[2]).equals(NUM[1])) {
-			return fastAdd(p[0],p[1],p[2],a0,a1,a2);
-		} else
-			throw new java.lang.RuntimeException("Invalid BigInteger. "+n.toString(16));
+			n = n.mod(N);
+		Endomorphism e = curve.endomorphism(this);
+		if(e != null) {
+			BigInteger[] k = e.split(n);
+			int[][][] q = oddMultiples(p, 1<<(window-2), s);
+			return straus(new int[][][][] {q, e.map(this, q, s)}, 
+					new int[][] {wnaf(k[0], window), wnaf(k[1], window)}, s);
+		}
+		return fastMultiplyWnaf(p, n, s);
 	}
 	
-	BigInteger[] fastDouble(BigInteger a0, BigInteger a1, BigInteger a2) {
-		BigInteger ysq = a1.pow(2).mod(P);
-		BigInteger s = ysq.multiply(a0).multiply(NUM[4]).mod(P);
-		BigInteger m = a0.pow(2).multiply(NUM[3]).add(a2.pow(4).multiply(A)).mod(P);
-		
-		BigInteger nx = m.pow(2).subtract(s.multiply(NUM[2])).mod(P);
-		BigInteger ny = m.multiply(s.subtract(nx)).subtract(ysq.pow(2).multiply(NUM[8])).mod(P);
-		BigInteger nz = a1.multiply(a2).multiply(NUM[2]).mod(P);
-		return new BigInteger[] {nx, ny, nz};
-	}
-	
-	BigInteger[] fastAdd(
-			BigInteger p0, BigInteger p1, BigInteger p2,
-			BigInteger q0, BigInteger q1, BigInteger q2
-			) {
-		BigInteger u1 = q2.pow(2).multiply(p0).mod(P);
-		BigInteger u2 = p2.pow(2).multiply(q0).mod(P);
-		BigInteger s1 = q2.pow(3).multiply(p1).mod(P);
-		BigInteger s2 = p2.pow(3).multiply(q1).mod(P);
-		if(u1.equals(u2)) {
-			if(s1.equals(s2))
-				return fastDouble(p0, p1, p2);
-			return new BigInteger[] {NUM[0], NUM[0], NUM[1]};
-		}
-		BigInteger h = u2.subtract(u1), r = s2.subtract(s1);
-		BigInteger h2 = h.pow(2).mod(P);
-		BigInteger h3 = h2.multiply(h).mod(P);
-		BigInteger u1h2 = u1.multiply(h2).mod(P);
+	/**
+	 * Iterative wNAF multiplication without the endomorphism.
+	 * 
+	 * @param p point in jacobian coordinates.
+	 * @param n scalar in range [0,N).
+	 * @param s temporaries.
+	 * 
+	 * @return n*p in jacobian coordinates.
+	 * */
+	int[][] fastMultiplyWnaf(int[][] p, BigInteger n, Field.Scratch s) {
+		return straus(new int[][][][] {oddMultiples(p, 1<<(window-2), s)}, new int[][] {wnaf(n, window)}, s);
+	}
+	
+	/**
+	 * @param n scalar.
+	 * @param s temporaries.
+	 * 
+	 * @return n*G in jacobian coordinates, computed from the precomputed table of the curve.
+	 * */
+	int[][] fastBaseMultiply(BigInteger n, Field.Scratch s) {
+		if(n.signum() < 0 || n.compareTo(N) >= 0)
+			n = n.mod(N);
+		return curve.baseTable(this).multiply(this, n, s);
+	}
+	
+	/**
+	 * Straus-Shamir multiplication, both scalars are recoded to wNAF and share one chain of doublings.
+	 * On curves with an endomorphism both scalars are split first, four half length scalars then share the doublings.
+	 * 
+	 * @param n scalar of G.
+	 * @param a point A in jacobian coordinates.
+	 * @param m scalar of A.
+	 * @param s temporaries.
+	 * 
+	 * @return n*G + m*A in jacobian coordinates.
+	 * */
+	int[][] fastJointMultiply(BigInteger n, int[][] a, BigInteger m, Field.Scratch s) {
+		return fastJointMultiply(n, oddMultiples(a, 1<<(window-2), s), window, m, s);
+	}
+	
+	/**
+	 * Same as fastJointMultiply(BigInteger, int[][], BigInteger, Field.Scratch) with the odd multiples of A given.
+	 * 
+	 * @param q odd multiples of A, see oddMultiples.
+	 * @param width wNAF width of q, q holds 2^(width-2) points.
+	 * */
+	int[][] fastJointMultiply(BigInteger n, int[][][] q, int width, BigInteger m, Field.Scratch s) {
+		if(n.signum() < 0 || n.compareTo(N) >= 0)
+			n = n.mod(N);
+		if(m.signum() < 0 || m.compareTo(N) >= 0)
+			m = m.mod(N);
+		FixedBaseTable t = curve.baseTable(this);
+		Endomorphism e = curve.endomorphism(this);
+		if(e != null) {
+			BigInteger[] nk = e.split(n), mk = e.split(m);
+			return straus(new int[][][][] {t.odd, t.oddEndo, q, e.map(this, q, s)},
+					new int[][] {
+						wnaf(nk[0], FixedBaseTable.WNAF), wnaf(nk[1], FixedBaseTable.WNAF),
+						wnaf(mk[0], width), wnaf(mk[1], width)
+					}, s);
+		}
+		return straus(new int[][][][] {t.odd, q}, new int[][] {wnaf(n, FixedBaseTable.WNAF), wnaf(m, width)}, s);
+	}
+	
+	/**
+	 * Interleaved wNAF, all points share one chain of doublings.
+	 * 
+	 * @param tables odd multiples of every point, see oddMultiples.
+	 * @param nafs wNAF digits of the scalar of every point.
+	 * @param s temporaries.
+	 * 
+	 * @return sum of the multiples in jacobian coordinates.
+	 * */
+	int[][] straus(int[][][][] tables, int[][] nafs, Field.Scratch s) {
+		int len = 0;
+		for(int[] naf: nafs)
+			len = Math.max(len, naf.length);
+		int[][] p = newPoint(), neg = newNegation();
+		for(int j = len-1; j >= 0; --j) {
+			fastDouble(p, p, s);
+			for(int i = 0; i < tables.length; ++i) {
+				if(j < nafs[i].length && nafs[i][j] != 0)
+					fastAdd(p, p, select(tables[i], nafs[i][j], neg), s);
+			}
+		}
+		return p;
+	}
+	
+	/**
+	 * @param points points in jacobian coordinates.
+	 * @param scalars scalar of every point.
+	 * @param s temporaries.
+	 * 
+	 * @return sum of scalars[i]*points[i] in jacobian coordinates.
+	 * */
+	int[][] fastMultiMultiply(int[][][] points, BigInteger[] scalars, Field.Scratch s) {
+		BigInteger[] ks = new BigInteger[scalars.length];
+		for(int i = 0; i < ks.length; ++i)
+			ks[i] = scalars[i].signum() < 0 || scalars[i].compareTo(N) >= 0?scalars[i].mod(N):scalars[i];
+		if(points.length >= PIPPENGER_MIN)
+			return pippenger(points, ks, s);
 		
-		BigInteger nx = r.pow(2).subtract(h3).subtract(u1h2.multiply(NUM[2])).mod(P);
-		BigInteger ny = r.multiply(u1h2.subtract(nx)).subtract(s1.multiply(h3)).mod(P);
-		BigInteger nz = h.multiply(p2).multiply(q2).mod(P);
-
-		return new BigInteger[] {nx, ny, nz};
+		Endomorphism e = curve.endomorphism(this);
+		int k = e == null?1:2;
+		int[][] nafs = new int[points.length*k][];
+		int[][][][] tables = new int[points.length*k][][][];
+		for(int i = 0; i < points.length; ++i) {
+			tables[i*k] = oddMultiples(points[i], 1<<(window-2), s);
+			if(e == null) {
+				nafs[i] = wnaf(ks[i], window);
+				continue;
+			}
+			BigInteger[] sk = e.split(ks[i]);
+			nafs[i*k] = wnaf(sk[0], window);
+			nafs[i*k+1] = wnaf(sk[1], window);
+			tables[i*k+1] = e.map(this, tables[i*k], s);
+		}
+		return straus(tables, nafs, s);
+	}
+	
+	/**
+	 * Bucket method for large multi-scalar multiplications, scalars must be in range [0,N).
+	 * */
+	int[][] pippenger(int[][][] points, BigInteger[] scalars, Field.Scratch s) {
+		int c = Math.max(2, Math.min(16, 31-Integer.numberOfLeadingZeros(points.length)-2));
+		int bits = N.bitLength();
+		int[][] p = newPoint();
+		for(int w = (bits+c-1)/c-1; w >= 0; --w) {
+			for(int j = 0; j < c; ++j)
+				fastDouble(p, p, s);
+			int[][][] buckets = new int[(1<<c)-1][][];
+			for(int i = 0; i < points.length; ++i) {
+				int d = 0;
+				for(int j = c-1; j >= 0; --j)
+					d = (d<<1)|(scalars[i].testBit(w*c+j)?1:0);
+				if(d == 0)
+					continue;
+				if(buckets[d-1] == null)
+					buckets[d-1] = copyPoint(points[i]);
+				else
+					fastAdd(buckets[d-1], buckets[d-1], points[i], s);
+			}
+			//sum of d*buckets[d-1] with running sums
+			int[][] run = newPoint(), sum = newPoint();
+			for(int d = buckets.length; d > 0; --d) {
+				if(buckets[d-1] != null)
+					fastAdd(run, run, buckets[d-1], s);
+				fastAdd(sum, sum, run, s);
+			}
+			fastAdd(p, p, sum, s);
+		}
+		return p;
+	}
+	
+	/**
+	 * @return A, 3*A, 5*A, ... in jacobian coordinates, count points in total.
+	 * */
+	int[][][] oddMultiples(int[][] a, int count, Field.Scratch s) {
+		int[][][] out = new int[count][][];
+		out[0] = copyPoint(a);
+		int[][] d = newPoint();
+		fastDouble(d, a, s);
+		for(int i = 1; i < count; ++i) {
+			out[i] = newPoint();
+			fastAdd(out[i], out[i-1], d, s);
+		}
+		return out;
+	}
+	
+	/**
+	 * @param table odd multiples of a point.
+	 * @param d odd wNAF digit.
+	 * @param neg holder of a negated point, see newNegation.
+	 * 
+	 * @return d*point, negated into neg when d is negative.
+	 * */
+	int[][] select(int[][][] table, int d, int[][] neg) {
+		int[][] q = table[Math.abs(d)>>1];
+		if(d > 0)
+			return q;
+		neg[0] = q[0];
+		F.neg(neg[1], q[1]);
+		neg[2] = q[2];
+		return neg;
+	}
+	
+	/**
+	 * @param n scalar, may be negative.
+	 * @param w window width.
+	 * 
+	 * @return width-w non adjacent form of n, least significant digit first, every non-zero digit is odd and less than 2^(w-1) in absolute value.
+	 * */
+	static int[] wnaf(BigInteger n, int w) {
+		if(n.signum() < 0) {
+			int[] out = wnaf(n.negate(), w);
+			for(int i = 0; i < out.length; ++i)
+				out[i] = -out[i];
+			return out;
+		}
+		int len = n.bitLength();
+		int[] out = new int[len+1];
+		int i = 0, carry = 0, mask = (1<<w)-1;
+		while(i < len || carry != 0) {
+			if((n.testBit(i)?1:0) == carry) {
+				++i;
+				continue;
+			}
+			int d = carry;
+			for(int j = 0; j < w; ++j)
+				if(n.testBit(i+j))
+					d += 1<<j;
+			d &= mask;
+			if(d > (mask>>1)) {
+				d -= 1<<w;
+				carry = 1;
+			} else
+				carry = 0;
+			out[i] = d;
+			i += w;
+		}
+		return out;
+	}
+	
+	/**
+	 * r = 2*p in jacobian coordinates, r may be p.
+	 * */
+	void fastDouble(int[][] r, int[][] p, Field.Scratch s) {
+		++s.doubles;
+		if(F.isZero(p[2]) || F.isZero(p[1])) {
+			F.set(r[2], F.zero);
+			return;
+		}
+		if(aIsZero)
+			fastDoubleA0(r, p, s);
+		else if(aIsMinus3)
+			fastDoubleA3(r, p, s);
+		else
+			fastDoubleGeneric(r, p, s);
+	}
+	
+	/**
+	 * Doubling for a = 0, 2M + 5S.
+	 * */
+	void fastDoubleA0(int[][] r, int[][] p, Field.Scratch s) {
+		long[] t = s.t;
+		int[] a = s.v[0], b = s.v[1], c = s.v[2], d = s.v[3], e = s.v[4];
+		//a = x^2, b = y^2, c = b^2, d = 2*((x + b)^2 - a - c)
+		F.sqr(a, p[0], t);
+		F.sqr(b, p[1], t);
+		F.sqr(c, b, t);
+		F.add(d, p[0], b);
+		F.sqr(d, d, t);
+		F.sub(d, d, a);
+		F.sub(d, d, c);
+		F.add(d, d, d);
+		//e = 3*a, f = e^2
+		F.add(e, a, a);
+		F.add(e, e, a);
+		F.sqr(a, e, t);
+		//nz = 2*y*z
+		F.mul(b, p[1], p[2], t);
+		F.add(r[2], b, b);
+		//nx = f - 2*d
+		F.sub(a, a, d);
+		F.sub(r[0], a, d);
+		//ny = e*(d - nx) - 8*c
+		F.sub(d, d, r[0]);
+		F.mul(d, e, d, t);
+		F.add(c, c, c);
+		F.add(c, c, c);
+		F.add(c, c, c);
+		F.sub(r[1], d, c);
+	}
+	
+	/**
+	 * Doubling for a = -3, 3M + 5S.
+	 * */
+	void fastDoubleA3(int[][] r, int[][] p, Field.Scratch s) {
+		long[] t = s.t;
+		int[] delta = s.v[0], gamma = s.v[1], beta = s.v[2], alpha = s.v[3], t4 = s.v[4];
+		//delta = z^2, gamma = y^2, beta = x*gamma
+		F.sqr(delta, p[2], t);
+		F.sqr(gamma, p[1], t);
+		F.mul(beta, p[0], gamma, t);
+		//alpha = 3*(x - delta)*(x + delta)
+		F.sub(alpha, p[0], delta);
+		F.add(t4, p[0], delta);
+		F.mul(alpha, alpha, t4, t);
+		F.add(t4, alpha, alpha);
+		F.add(alpha, t4, alpha);
+		//nz = (y + z)^2 - gamma - delta
+		F.add(t4, p[1], p[2]);
+		F.sqr(t4, t4, t);
+		F.sub(t4, t4, gamma);
+		F.sub(r[2], t4, delta);
+		//nx = alpha^2 - 8*beta
+		F.add(beta, beta, beta);
+		F.add(beta, beta, beta);
+		F.sqr(delta, alpha, t);
+		F.sub(delta, delta, beta);
+		F.sub(r[0], delta, beta);
+		//ny = alpha*(4*beta - nx) - 8*gamma^2
+		F.sub(beta, beta, r[0]);
+		F.mul(beta, alpha, beta, t);
+		F.sqr(gamma, gamma, t);
+		F.add(gamma, gamma, gamma);
+		F.add(gamma, gamma, gamma);
+		F.add(gamma, gamma, gamma);
+		F.sub(r[1], beta, gamma);
+	}
+	
+	/**
+	 * Doubling for any a, 4M + 6S.
+	 * */
+	void fastDoubleGeneric(int[][] r, int[][] p, Field.Scratch s) {
+		long[] t = s.t;
+		int[] ysq = s.v[0], sm = s.v[1], t2 = s.v[2], m = s.v[3], t4 = s.v[4];
+		//ysq = y^2, s = 4*x*ysq
+		F.sqr(ysq, p[1], t);
+		F.mul(sm, p[0], ysq, t);
+		F.add(sm, sm, sm);
+		F.add(sm, sm, sm);
+		//m = 3*x^2 + a*z^4
+		F.sqr(t2, p[0], t);
+		F.add(m, t2, t2);
+		F.add(m, m, t2);
+		if(!F.isZero(fieldA)) {
+			F.sqr(t4, p[2], t);
+			F.sqr(t4, t4, t);
+			F.mul(t4, t4, fieldA, t);
+			F.add(m, m, t4);
+		}
+		//nz = 2*y*z
+		F.mul(t4, p[1], p[2], t);
+		F.add(r[2], t4, t4);
+		//nx = m^2 - 2*s
+		F.sqr(t2, m, t);
+		F.sub(t2, t2, sm);
+		F.sub(r[0], t2, sm);
+		//ny = m*(s - nx) - 8*ysq^2
+		F.sub(sm, sm, r[0]);
+		F.mul(sm, m, sm, t);
+		F.sqr(ysq, ysq, t);
+		F.add(ysq, ysq, ysq);
+		F.add(ysq, ysq, ysq);
+		F.add(ysq, ysq, ysq);
+		F.sub(r[1], sm, ysq);
+	}
+	
+	/**
+	 * r = p + q in jacobian coordinates, r may be p or q. 
+	 * When either point has z = 1 the cheaper mixed addition is used.
+	 * */
+	void fastAdd(int[][] r, int[][] p, int[][] q, Field.Scratch s) {
+		++s.adds;
+		if(F.isZero(p[2])) {
+			setPoint(r, q);
+			return;
+		}
+		if(F.isZero(q[2])) {
+			setPoint(r, p);
+			return;
+		}
+		if(F.eq(q[2], F.one)) {
+			fastAddAffine(r, p, q, s);
+			return;
+		}
+		if(F.eq(p[2], F.one)) {
+			fastAddAffine(r, q, p, s);
+			return;
+		}
+		long[] t = s.t;
+		int[] u1 = s.v[0], u2 = s.v[1], s1 = s.v[2], s2 = s.v[3], h2 = s.v[4], h3 = s.v[5], t6 = s.v[6];
+		//u1 = x1*z2^2, u2 = x2*z1^2, s1 = y1*z2^3, s2 = y2*z1^3
+		F.sqr(s1, q[2], t);
+		F.sqr(s2, p[2], t);
+		F.mul(u1, p[0], s1, t);
+		F.mul(u2, q[0], s2, t);
+		F.mul(s1, s1, q[2], t);
+		F.mul(s1, p[1], s1, t);
+		F.mul(s2, s2, p[2], t);
+		F.mul(s2, q[1], s2, t);
+		if(F.eq(u1, u2)) {
+			if(F.eq(s1, s2))
+				fastDouble(r, p, s);
+			else
+				F.set(r[2], F.zero);
+			return;
+		}
+		//h = u2 - u1, r = s2 - s1
+		int[] h = u2, rr = s2;
+		F.sub(h, u2, u1);
+		F.sub(rr, s2, s1);
+		F.sqr(h2, h, t);
+		F.mul(h3, h2, h, t);
+		F.mul(u1, u1, h2, t);
+		//nz = h*z1*z2
+		F.mul(t6, p[2], q[2], t);
+		F.mul(r[2], t6, h, t);
+		//nx = r^2 - h^3 - 2*u1*h^2
+		F.sqr(t6, rr, t);
+		F.sub(t6, t6, h3);
+		F.sub(t6, t6, u1);
+		F.sub(r[0], t6, u1);
+		//ny = r*(u1*h^2 - nx) - s1*h^3
+		F.sub(u1, u1, r[0]);
+		F.mul(u1, rr, u1, t);
+		F.mul(h3, s1, h3, t);
+		F.sub(r[1], u1, h3);
+	}
+	
+	/**
+	 * r = p + q where q has z = 1, r may be p or q, 7M + 4S.
+	 * */
+	void fastAddAffine(int[][] r, int[][] p, int[][] q, Field.Scratch s) {
+		long[] t = s.t;
+		int[] zz = s.v[0], u2 = s.v[1], s2 = s.v[2], h2 = s.v[3], h3 = s.v[4], v = s.v[5], t6 = s.v[6];
+		//u2 = x2*z1^2, s2 = y2*z1^3
+		F.sqr(zz, p[2], t);
+		F.mul(u2, q[0], zz, t);
+		F.mul(zz, zz, p[2], t);
+		F.mul(s2, q[1], zz, t);
+		//h = u2 - x1, r = s2 - y1
+		int[] h = u2, rr = s2;
+		F.sub(h, u2, p[0]);
+		F.sub(rr, s2, p[1]);
+		if(F.isZero(h)) {
+			if(F.isZero(rr))
+				fastDouble(r, p, s);
+			else
+				F.set(r[2], F.zero);
+			return;
+		}
+		F.sqr(h2, h, t);
+		F.mul(h3, h2, h, t);
+		F.mul(v, p[0], h2, t);
+		F.mul(t6, p[1], h3, t);
+		//nz = z1*h
+		F.mul(r[2], p[2], h, t);
+		//nx = r^2 - h^3 - 2*x1*h^2
+		F.sqr(h2, rr, t);
+		F.sub(h2, h2, h3);
+		F.sub(h2, h2, v);
+		F.sub(r[0], h2, v);
+		//ny = r*(x1*h^2 - nx) - y1*h^3
+		F.sub(v, v, r[0]);
+		F.mul(v, rr, v, t);
+		F.sub(r[1], v, t6);
+	}
+	
+	/**
+	 * Scale p in place to z = 1, p must not be the point at infinity.
+	 * */
+	void normalize(int[][] p, Field.Scratch s) {
+		int[] z = s.v[0], z2 = s.v[1];
+		F.inv(z, p[2]);
+		++s.invs;
+		F.sqr(z2, z, s.t);
+		F.mul(p[0], p[0], z2, s.t);
+		F.mul(z2, z2, z, s.t);
+		F.mul(p[1], p[1], z2, s.t);
+		F.set(p[2], F.one);
+	}
+	
+	/**
+	 * Scale every point in place to z = 1 with one shared inversion, points at infinity are left as they are.
+	 * */
+	void normalizeAll(int[][][] points, Field.Scratch s) {
+		int[][] zs = new int[points.length][];
+		for(int i = 0; i < points.length; ++i)
+			zs[i] = points[i][2].clone();
+		F.invAll(zs, s.t);
+		++s.invs;
+		int[] z2 = s.v[0];
+		for(int i = 0; i < points.length; ++i) {
+			int[][] p = points[i];
+			if(F.isZero(zs[i]))
+				continue;
+			F.sqr(z2, zs[i], s.t);
+			F.mul(p[0], p[0], z2, s.t);
+			F.mul(z2, z2, zs[i], s.t);
+			F.mul(p[1], p[1], z2, s.t);
+			F.set(p[2], F.one);
+		}
+	}
+	
+	/**
+	 * @param p point in jacobian coordinates, it is normalized in place.
+	 * @param s temporaries.
+	 * 
+	 * @return affine x,y of p, null for the point at infinity.
+	 * */
+	BigInteger[] toAffine(int[][] p, Field.Scratch s) {
+		if(F.isZero(p[2]))
+			return null;
+		normalize(p, s);
+		return new BigInteger[] {F.toBigInt(p[0]), F.toBigInt(p[1])};
+	}
+	
+	/**
+	 * @return affine point (x,y) in jacobian coordinates of field elements.
+	 * */
+	int[][] toPoint(BigInteger x, BigInteger y) {
+		return new int[][] {F.fromBigInt(x), F.fromBigInt(y), F.one.clone()};
+	}
+	
+	/**
+	 * @return the point at infinity, z = 0.
+	 * */
+	int[][] newPoint() {
+		return new int[3][F.len];
+	}
+	
+	int[][] newNegation() {
+		return new int[][] {null, new int[F.len], null};
+	}
+	
+	static int[][] copyPoint(int[][] p) {
+		return new int[][] {p[0].clone(), p[1].clone(), p[2].clone()};
+	}
+	
+	void setPoint(int[][] r, int[][] p) {
+		if(r == p)
+			return;
+		F.set(r[0], p[0]);
+		F.set(r[1], p[1]);
+		F.set(r[2], p[2]);
 	}
 	
 	static BigInteger inv(BigInteger a, BigInteger b) {
@@ -0,0 +1,172 @@
+package archer.algorithm.ecdsa;
+
+import java.math.BigInteger;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+
+/**
+ * GLV endomorphism of the a = 0 curves (secp*k1), lambda*(x,y) = (beta*x,y) where beta and lambda are
+ * cube roots of unity modulo P and N. A scalar k is split into k1 + k2*lambda with k1 and k2 about 
+ * half the length of N, so k*A = k1*A + k2*(beta*x,y) needs half of the doublings.
+ * */
+final class Endomorphism {
+	final BigInteger beta;
+	final BigInteger lambda;
+	final int[] fieldBeta;
+	
+	/**
+	 * Short basis (a1,b1), (a2,b2) of the lattice of (x,y) with x + y*lambda = 0 (mod = N).
+	 * */
+	final BigInteger a1, b1, a2, b2;
+	final BigInteger N;
+	
+	Endomorphism(Ecdsa ecdsa) {
+		N = ecdsa.N;
+		BigInteger b = cubeRoot(ecdsa.P), l = cubeRoot(N);
+		
+		//pair the roots, lambda*G must be (beta*Gx,Gy)
+		Field.Scratch s = ecdsa.F.scratch();
+		BigInteger[] lg = ecdsa.toAffine(ecdsa.fastMultiplyWnaf(ecdsa.toPoint(ecdsa.Gx, ecdsa.Gy), l, s), s);
+		if(!lg[0].equals(ecdsa.Gx.multiply(b).mod(ecdsa.P)))
+			b = b.multiply(b).mod(ecdsa.P);
+		beta = b;
+		lambda = l;
+		fieldBeta = ecdsa.F.fromBigInt(beta);
+		
+		//extended euclid on (N,lambda) until the remainder drops below sqrt(N)
+		BigInteger sqrtN = N.sqrt();
+		BigInteger r0 = N, t0 = Ecdsa.NUM[0], r1 = lambda, t1 = Ecdsa.NUM[1];
+		while(r1.compareTo(sqrtN) >= 0) {
+			BigInteger q = r0.divide(r1);
+			BigInteger r2 = r0.subtract(q.multiply(r1)), t2 = t0.subtract(q.multiply(t1));
+			r0 = r1;
+			t0 = t1;
+			r1 = r2;
+			t1 = t2;
+		}
+		BigInteger q = r0.divide(r1);
+		BigInteger r2 = r0.subtract(q.multiply(r1)), t2 = t0.subtract(q.multiply(t1));
+		a1 = r1;
+		b1 = t1.negate();
+		if(r0.pow(2).add(t0.pow(2)).compareTo(r2.pow(2).add(t2.pow(2))) <= 0) {
+			a2 = r0;
+			b2 = t0.negate();
+		} else {
+			a2 = r2;
+			b2 = t2.negate();
+		}
+	}
+	
+	/**
+	 * Constants loaded by TableStore, checked against the curve before they are used: cube roots 
+	 * of unity paired as lambda*G = (beta*Gx,Gy), and a basis of the lattice with determinant N 
+	 * whose vectors are no longer than about sqrt(N) so split keeps k1, k2 short.
+	 * */
+	Endomorphism(Ecdsa ecdsa, BigInteger beta, BigInteger lambda, BigInteger a1, BigInteger b1, BigInteger a2, BigInteger b2) {
+		N = ecdsa.N;
+		BigInteger P = ecdsa.P;
+		int bits = (N.bitLength()>>1)+2;
+		if(beta.signum() <= 0 || beta.compareTo(P) >= 0 || lambda.signum() <= 0 || lambda.compareTo(N) >= 0
+				|| !beta.modPow(Ecdsa.NUM[3], P).equals(Ecdsa.NUM[1]) || !lambda.modPow(Ecdsa.NUM[3], N).equals(Ecdsa.NUM[1])
+				|| beta.equals(Ecdsa.NUM[1]) || lambda.equals(Ecdsa.NUM[1])
+				|| a1.add(b1.multiply(lambda)).mod(N).signum() != 0 || a2.add(b2.multiply(lambda)).mod(N).signum() != 0
+				|| !a1.multiply(b2).subtract(a2.multiply(b1)).abs().equals(N)
+				|| a1.bitLength() > bits || b1.bitLength() > bits || a2.bitLength() > bits || b2.bitLength() > bits)
+			throw new java.lang.RuntimeException("Invalid endomorphism constants of "+ecdsa.curve);
+		
+		Field.Scratch s = ecdsa.F.scratch();
+		BigInteger[] lg = ecdsa.toAffine(ecdsa.fastMultiplyWnaf(ecdsa.toPoint(ecdsa.Gx, ecdsa.Gy), lambda, s), s);
+		if(lg == null || !lg[0].equals(ecdsa.Gx.multiply(beta).mod(P)) || !lg[1].equals(ecdsa.Gy))
+			throw new java.lang.RuntimeException("Endomorphism constants of "+ecdsa.curve+" do not pair lambda with beta.");
+		this.beta = beta;
+		this.lambda = lambda;
+		this.a1 = a1;
+		this.b1 = b1;
+		this.a2 = a2;
+		this.b2 = b2;
+		fieldBeta = ecdsa.F.fromBigInt(beta);
+	}
+	
+	/**
+	 * @param ecdsa instance of the curve.
+	 * 
+	 * @return true if the curve has y^2 = x^3 + b and non-trivial cube roots of unity.
+	 * */
+	static boolean supports(Ecdsa ecdsa) {
+		return ecdsa.A.signum() == 0
+				&& ecdsa.P.mod(Ecdsa.NUM[3]).equals(Ecdsa.NUM[1])
+				&& ecdsa.N.mod(Ecdsa.NUM[3]).equals(Ecdsa.NUM[1]);
+	}
+	
+	/**
+	 * @param k scalar in range [0,N).
+	 * 
+	 * @return k1, k2 with k = k1 + k2*lambda (mod = N), both may be negative.
+	 * */
+	BigInteger[] split(BigInteger k) {
+		BigInteger c1 = roundDiv(b2.multiply(k)), c2 = roundDiv(b1.negate().multiply(k));
+		BigInteger k1 = k.subtract(c1.multiply(a1)).subtract(c2.multiply(a2));
+		BigInteger k2 = c1.multiply(b1).add(c2.multiply(b2)).negate();
+		return new BigInteger[] {k1, k2};
+	}
+	
+	/**
+	 * @return round(x/N), x may be negative.
+	 * */
+	BigInteger roundDiv(BigInteger x) {
+		BigInteger[] qr = x.shiftLeft(1).add(N).divideAndRemainder(N.shiftLeft(1));
+		return qr[1].signum() < 0?qr[0].subtract(Ecdsa.NUM[1]):qr[0];
+	}
+	
+	/**
+	 * @param ecdsa instance supplying the field.
+	 * @param points points in jacobian coordinates.
+	 * 
+	 * @return (beta*x,y,z) of every point, y and z are shared with the input.
+	 * */
+	int[][][] map(Ecdsa ecdsa, int[][][] points, Field.Scratch s) {
+		int[][][] out = new int[points.length][][];
+		for(int i = 0; i < points.length; ++i) {
+			int[] x = new int[ecdsa.F.len];
+			ecdsa.F.mul(x, points[i][0], fieldBeta, s.t);
+			out[i] = new int[][] {x, points[i][1], points[i][2]};
+		}
+		return out;
+	}
+	
+	/**
+	 * @return a cube root of unity other than 1 modulo prime m, m = 1 (mod = 3).
+	 * */
+	static BigInteger cubeRoot(BigInteger m) {
+		BigInteger e = m.subtract(Ecdsa.NUM[1]).divide(Ecdsa.NUM[3]);
+		for(int g = 2; ; ++g) {
+			BigInteger r = BigInteger.valueOf(g).modPow(e, m);
+			if(!r.equals(Ecdsa.NUM[1]))
+				return r;
+		}
+	}
+}
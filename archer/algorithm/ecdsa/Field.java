@@ -0,0 +1,349 @@
+package archer.algorithm.ecdsa;
+
+import java.math.BigInteger;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+
+/**
+ * Arithmetic modulo the prime P of a curve on fixed size 32 bits limbs, least significant limb first.
+ * Elements are kept fully reduced in range [0,P), a subclass decides the representation 
+ * (x*R mod P) and implements the multiplication.
+ * */
+abstract class Field {
+	static final long M = 0xffffffffL;
+	
+	final BigInteger P;
+	final int len;
+	final int[] p;
+	
+	/**
+	 * Representation factor R and its inverse, x is kept as x*R mod P.
+	 * */
+	final BigInteger R;
+	final BigInteger RInv;
+	
+	final int[] zero;
+	final int[] one;
+	
+	Field(BigInteger P, BigInteger R) {
+		this.P = P;
+		this.R = R.mod(P);
+		RInv = this.R.modInverse(P);
+		len = (P.bitLength()+31)>>5;
+		p = toLimbs(P, len);
+		zero = new int[len];
+		one = toLimbs(this.R, len);
+	}
+	
+	/**
+	 * @param P prime of a curve.
+	 * 
+	 * @return the fastest field for the shape of P, folding for 2^k-c, word shuffling for 
+	 * the NIST primes, Montgomery multiplication otherwise.
+	 * */
+	static Field of(BigInteger P) {
+		if(PseudoMersenneField.supports(P))
+			return new PseudoMersenneField(P);
+		if(NistField.supports(P))
+			return new NistField(P);
+		return new MontgomeryField(P);
+	}
+	
+	/**
+	 * Temporaries of one computation, never shared between threads.
+	 * */
+	static final class Scratch {
+		final long[] t;
+		final int[][] v;
+		
+		/**
+		 * Point doubles, point additions and inversions done with this scratch, Metrics flushes them once per operation.
+		 * */
+		int doubles, adds, invs;
+		
+		Scratch(int tLen, int vLen, int count) {
+			t = new long[tLen];
+			v = new int[count][vLen];
+		}
+	}
+	
+	/**
+	 * @return temporaries for field and point operations.
+	 * */
+	Scratch scratch() {
+		return new Scratch(2*len+2, len, 8);
+	}
+	
+	/**
+	 * r = a*b, r may be a or b.
+	 * */
+	abstract void mul(int[] r, int[] a, int[] b, long[] t);
+	
+	/**
+	 * r = a^2, r may be a.
+	 * */
+	void sqr(int[] r, int[] a, long[] t) {
+		mul(r, a, a, t);
+	}
+	
+	/**
+	 * r = a+b, r may be a or b.
+	 * */
+	void add(int[] r, int[] a, int[] b) {
+		long c = 0;
+		for(int i = 0; i < len; ++i) {
+			c += (a[i]&M)+(b[i]&M);
+			r[i] = (int) c;
+			c >>>= 32;
+		}
+		if(c != 0 || geq(r, p))
+			subP(r);
+	}
+	
+	/**
+	 * r = a-b, r may be a or b.
+	 * */
+	void sub(int[] r, int[] a, int[] b) {
+		long c = 0;
+		for(int i = 0; i < len; ++i) {
+			c += (a[i]&M)-(b[i]&M);
+			r[i] = (int) c;
+			c >>= 32;
+		}
+		if(c != 0) {
+			c = 0;
+			for(int i = 0; i < len; ++i) {
+				c += (r[i]&M)+(p[i]&M);
+				r[i] = (int) c;
+				c >>>= 32;
+			}
+		}
+	}
+	
+	/**
+	 * r = -a, r may be a.
+	 * */
+	void neg(int[] r, int[] a) {
+		if(isZero(a)) {
+			set(r, a);
+			return;
+		}
+		long c = 0;
+		for(int i = 0; i < len; ++i) {
+			c += (p[i]&M)-(a[i]&M);
+			r[i] = (int) c;
+			c >>= 32;
+		}
+	}
+	
+	/**
+	 * r = a^-1, zero for zero.
+	 * */
+	void inv(int[] r, int[] a) {
+		BigInteger x = Ecdsa.inv(toBigInt(a), P);
+		set(r, fromBigInt(x));
+	}
+	
+	/**
+	 * Replace every a[i] by its inverse with a single inversion (Montgomery's trick), zero stays zero.
+	 * */
+	void invAll(int[][] a, long[] t) {
+		int n = a.length;
+		if(n == 0)
+			return;
+		//prefix[i] = product of the non-zero a[0..i]
+		int[][] prefix = new int[n][];
+		int[] acc = one.clone();
+		for(int i = 0; i < n; ++i) {
+			if(!isZero(a[i]))
+				mul(acc, acc, a[i], t);
+			prefix[i] = acc.clone();
+		}
+		int[] inv = new int[len], tmp = new int[len];
+		inv(inv, acc);
+		for(int i = n-1; i >= 0; --i) {
+			if(isZero(a[i]))
+				continue;
+			if(i > 0)
+				mul(tmp, inv, prefix[i-1], t);
+			else
+				set(tmp, inv);
+			mul(inv, inv, a[i], t);
+			set(a[i], tmp);
+		}
+	}
+	
+	void set(int[] r, int[] a) {
+		System.arraycopy(a, 0, r, 0, len);
+	}
+	
+	boolean isZero(int[] a) {
+		int d = 0;
+		for(int i = 0; i < len; ++i)
+			d |= a[i];
+		return d == 0;
+	}
+	
+	boolean eq(int[] a, int[] b) {
+		int d = 0;
+		for(int i = 0; i < len; ++i)
+			d |= a[i]^b[i];
+		return d == 0;
+	}
+	
+	/**
+	 * @param x number in range [0,P).
+	 * 
+	 * @return field element of x.
+	 * */
+	int[] fromBigInt(BigInteger x) {
+		if(R.equals(BigInteger.ONE))
+			return toLimbs(x.mod(P), len);
+		return toLimbs(x.multiply(R).mod(P), len);
+	}
+	
+	/**
+	 * @param a field element.
+	 * 
+	 * @return number of a in range [0,P).
+	 * */
+	BigInteger toBigInt(int[] a) {
+		if(R.equals(BigInteger.ONE))
+			return fromLimbs(a);
+		return fromLimbs(a).multiply(RInv).mod(P);
+	}
+	
+	/**
+	 * t = a*b as 2*len limbs of 32 bits.
+	 * */
+	void mulWide(long[] t, int[] a, int[] b) {
+		int n = len;
+		for(int i = 0; i < n; ++i)
+			t[i] = 0;
+		for(int i = 0; i < n; ++i) {
+			long ai = a[i]&M, c = 0;
+			for(int j = 0; j < n; ++j) {
+				c += t[i+j]+ai*(b[j]&M);
+				t[i+j] = c&M;
+				c >>>= 32;
+			}
+			t[i+n] = c;
+		}
+	}
+	
+	/**
+	 * t = a^2 as 2*len limbs of 32 bits, every cross product is computed once.
+	 * */
+	void sqrWide(long[] t, int[] a) {
+		int n = len;
+		for(int i = 0; i < n<<1; ++i)
+			t[i] = 0;
+		for(int i = 0; i < n; ++i) {
+			long ai = a[i]&M, c = 0;
+			for(int j = i+1; j < n; ++j) {
+				c += t[i+j]+ai*(a[j]&M);
+				t[i+j] = c&M;
+				c >>>= 32;
+			}
+			t[i+n] = c;
+		}
+		long c = 0;
+		for(int i = 0; i < n; ++i) {
+			long ai = a[i]&M, sq = ai*ai;
+			c += (t[i<<1]<<1)+(sq&M);
+			t[i<<1] = c&M;
+			c >>>= 32;
+			c += (t[(i<<1)+1]<<1)+(sq>>>32);
+			t[(i<<1)+1] = c&M;
+			c >>>= 32;
+		}
+	}
+	
+	/**
+	 * r = r + c*2^(32*len) mod P, for small signed c and r in range [0,2^(32*len)).
+	 * */
+	void finish(int[] r, long c) {
+		while(c > 0) {
+			long b = 0;
+			for(int i = 0; i < len; ++i) {
+				b += (r[i]&M)-(p[i]&M);
+				r[i] = (int) b;
+				b >>= 32;
+			}
+			c += b;
+		}
+		while(c < 0) {
+			long b = 0;
+			for(int i = 0; i < len; ++i) {
+				b += (r[i]&M)+(p[i]&M);
+				r[i] = (int) b;
+				b >>>= 32;
+			}
+			c += b;
+		}
+		if(geq(r, p))
+			subP(r);
+	}
+	
+	/**
+	 * @return true if a >= b as unsigned numbers.
+	 * */
+	boolean geq(int[] a, int[] b) {
+		for(int i = len-1; i >= 0; --i) {
+			if(a[i] != b[i])
+				return (a[i]&M) > (b[i]&M);
+		}
+		return true;
+	}
+	
+	/**
+	 * r = r-P, the borrow out of the top limb is dropped.
+	 * */
+	void subP(int[] r) {
+		long c = 0;
+		for(int i = 0; i < len; ++i) {
+			c += (r[i]&M)-(p[i]&M);
+			r[i] = (int) c;
+			c >>= 32;
+		}
+	}
+	
+	static int[] toLimbs(BigInteger x, int len) {
+		int[] out = new int[len];
+		byte[] bs = x.toByteArray();
+		for(int i = 0; i < bs.length && i < len<<2; ++i)
+			out[i>>2] |= (bs[bs.length-1-i]&0xff)<<((i&3)<<3);
+		return out;
+	}
+	
+	static BigInteger fromLimbs(int[] a) {
+		byte[] bs = new byte[(a.length<<2)+1];
+		for(int i = 0; i < a.length<<2; ++i)
+			bs[bs.length-1-i] = (byte) (a[i>>2]>>>((i&3)<<3));
+		return new BigInteger(bs);
+	}
+}
@@ -0,0 +1,127 @@
+package archer.algorithm.ecdsa;
+
+import java.math.BigInteger;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+final class FixedBaseTable {
+	/**
+	 * Window width in bits, every window holds d*2^(W*i)*G for d in 1~(2^W-1).
+	 * */
+	static final int W = 4;
+
+	static final int SIZE = (1<<W)-1;
+
+	/**
+	 * wNAF width used for G in joint multiplications, odd multiples 1*G, 3*G, ..., (2^(WNAF-1)-1)*G are kept.
+	 * */
+	static final int WNAF = 7;
+
+	/**
+	 * Affine points with z = 1, points[i][d-1] is d*2^(W*i)*G, G being the base point of the table.
+	 * */
+	final int[][][][] points;
+	final int windows;
+
+	/**
+	 * Affine points with z = 1, odd[j] is (2*j+1)*G, only kept for the generator of the curve.
+	 * */
+	final int[][][] odd;
+
+	/**
+	 * odd mapped by the endomorphism of the curve, null if it has none.
+	 * */
+	final int[][][] oddEndo;
+
+	FixedBaseTable(Ecdsa ecdsa) {
+		this(ecdsa, ecdsa.toPoint(ecdsa.Gx, ecdsa.Gy), true);
+	}
+	
+	/**
+	 * @param ecdsa instance supplying the point arithmetic.
+	 * @param base affine point with z = 1, it is kept by the table.
+	 * @param withOdd if the wNAF odd multiples used by joint multiplications are built too.
+	 * */
+	FixedBaseTable(Ecdsa ecdsa, int[][] base, boolean withOdd) {
+		Field.Scratch s = ecdsa.F.scratch();
+		windows = (ecdsa.N.bitLength()+W-1)/W;
+		points = new int[windows][SIZE][][];
+
+		//jacobian multiples first, then a single batch inversion brings all of them to z = 1
+		int[][][] all = new int[windows*SIZE][][];
+		for(int i = 0; i < windows; ++i) {
+			points[i][0] = base;
+			int[][] p = Ecdsa.copyPoint(base);
+			for(int d = 1; d < SIZE; ++d) {
+				ecdsa.fastAdd(p, p, base, s);
+				points[i][d] = Ecdsa.copyPoint(p);
+			}
+			//2^W*base = (2^W-1)*base + base
+			ecdsa.fastAdd(p, p, base, s);
+			base = p;
+			System.arraycopy(points[i], 0, all, i*SIZE, SIZE);
+		}
+		ecdsa.normalizeAll(all, s);
+		
+		if(!withOdd) {
+			odd = oddEndo = null;
+			return;
+		}
+		odd = ecdsa.oddMultiples(points[0][0], 1<<(WNAF-2), s);
+		ecdsa.normalizeAll(odd, s);
+		Endomorphism e = ecdsa.curve.endomorphism(ecdsa);
+		oddEndo = e == null?null:e.map(ecdsa, odd, s);
+	}
+
+	/**
+	 * Table loaded by TableStore, every point is affine with z = 1.
+	 * */
+	FixedBaseTable(int[][][][] points, int[][][] odd, int[][][] oddEndo) {
+		this.points = points;
+		this.windows = points.length;
+		this.odd = odd;
+		this.oddEndo = oddEndo;
+	}
+	
+	/**
+	 * @param ecdsa instance supplying the point arithmetic.
+	 * @param n scalar in range [0,N).
+	 * @param s temporaries.
+	 *
+	 * @return n*base in jacobian coordinates, only additions are used.
+	 * */
+	int[][] multiply(Ecdsa ecdsa, BigInteger n, Field.Scratch s) {
+		int[][] acc = ecdsa.newPoint();
+		for(int i = 0; i < windows; ++i) {
+			int d = 0;
+			for(int j = W-1; j >= 0; --j)
+				d = (d<<1)|(n.testBit(i*W+j)?1:0);
+			if(d != 0)
+				ecdsa.fastAdd(acc, acc, points[i][d-1], s);
+		}
+		return acc;
+	}
+}
@@ -0,0 +1,214 @@
+package archer.algorithm.ecdsa;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+final class HmacDrbg {
+	/**
+	 * Output and block bytes of SHA-256.
+	 * */
+	static final int LEN = 32;
+	static final int BLOCK = 64;
+	
+	/**
+	 * One engine per thread, digests and buffers are created once and reused by every call.
+	 * */
+	private static final ThreadLocal<HmacDrbg> LOCAL = ThreadLocal.withInitial(HmacDrbg::new);
+	
+	/**
+	 * Digests which have absorbed the key xor ipad and the key xor opad, every mac starts from a clone of them.
+	 * */
+	private final MessageDigest inner;
+	private final MessageDigest outer;
+	
+	private final byte[] pad = new byte[BLOCK];
+	private final byte[] t = new byte[LEN];
+	
+	/**
+	 * State K and V of the generator.
+	 * */
+	private final byte[] k = new byte[LEN];
+	private final byte[] v = new byte[LEN];
+	
+	/**
+	 * Macs computed since the last macs(), kept here so Metrics is only touched once per operation.
+	 * */
+	private int macs;
+	
+	private HmacDrbg() {
+		try {
+			inner = MessageDigest.getInstance("sha-256");
+			outer = MessageDigest.getInstance("sha-256");
+		} catch(NoSuchAlgorithmException e) {
+			throw new java.lang.RuntimeException(e);
+		}
+	}
+	
+	/**
+	 * @return engine of the current thread.
+	 * */
+	static HmacDrbg get() {
+		return LOCAL.get();
+	}
+	
+	/**
+	 * Make key the key of the following macs, keys longer than a block are hashed first.
+	 * */
+	void key(byte[] key) {
+		Arrays.fill(pad, (byte) 0);
+		if(key.length > BLOCK) {
+			inner.reset();
+			inner.update(key);
+			digest(inner, pad, 0);
+		} else
+			System.arraycopy(key, 0, pad, 0, key.length);
+		for(int i = 0; i < BLOCK; ++i)
+			pad[i] ^= 0x36;
+		inner.reset();
+		inner.update(pad);
+		for(int i = 0; i < BLOCK; ++i)
+			pad[i] ^= 0x36^0x5c;
+		outer.reset();
+		outer.update(pad);
+		Arrays.fill(pad, (byte) 0);
+	}
+	
+	/**
+	 * @return digest keyed by key(byte[]), feed the message to it and pass it to end.
+	 * */
+	MessageDigest begin() {
+		return copy(inner);
+	}
+	
+	/**
+	 * Write the mac of the message fed to md at out[off].
+	 * */
+	void end(MessageDigest md, byte[] out, int off) {
+		++macs;
+		digest(md, t, 0);
+		MessageDigest o = copy(outer);
+		o.update(t);
+		digest(o, out, off);
+	}
+	
+	/**
+	 * @return HMAC-SHA256 of msg with key.
+	 * */
+	byte[] mac(byte[] key, byte[] msg) {
+		key(key);
+		MessageDigest md = begin();
+		md.update(msg);
+		byte[] out = new byte[LEN];
+		end(md, out, 0);
+		Metrics.count(Metrics.Work.HMAC, macs());
+		return out;
+	}
+	
+	/**
+	 * Instantiate the generator as RFC 6979 section 3.2 steps b to g do, seed is the concatenation of the parts.
+	 * */
+	void seed(byte[] ...parts) {
+		Arrays.fill(k, (byte) 0);
+		Arrays.fill(v, (byte) 1);
+		update(parts);
+	}
+	
+	/**
+	 * K = HMAC_K(V || 0x00 || parts), V = HMAC_K(V), repeated with 0x01 if there are parts.
+	 * */
+	void update(byte[] ...parts) {
+		boolean empty = true;
+		for(byte[] p: parts)
+			empty &= p == null || p.length == 0;
+		for(int i = 0; i < (empty?1:2); ++i) {
+			key(k);
+			MessageDigest md = begin();
+			md.update(v);
+			md.update((byte) i);
+			for(byte[] p: parts)
+				if(p != null)
+					md.update(p);
+			end(md, k, 0);
+			key(k);
+			stepV();
+		}
+	}
+	
+	/**
+	 * Fill out with the next bytes of the generator, key(k) is in place after seed and update.
+	 * */
+	void generate(byte[] out) {
+		for(int i = 0; i < out.length; i += LEN) {
+			stepV();
+			System.arraycopy(v, 0, out, i, Math.min(LEN, out.length-i));
+		}
+	}
+	
+	/**
+	 * Forget the state, keys and seeds must not outlive the call which used them.
+	 * */
+	void clear() {
+		Arrays.fill(k, (byte) 0);
+		Arrays.fill(v, (byte) 0);
+		Arrays.fill(t, (byte) 0);
+		key(k);
+	}
+	
+	/**
+	 * @return macs computed since the last call.
+	 * */
+	int macs() {
+		int n = macs;
+		macs = 0;
+		return n;
+	}
+	
+	private void stepV() {
+		MessageDigest md = begin();
+		md.update(v);
+		end(md, v, 0);
+	}
+	
+	private static MessageDigest copy(MessageDigest md) {
+		try {
+			return (MessageDigest) md.clone();
+		} catch(CloneNotSupportedException e) {
+			throw new java.lang.RuntimeException(e);
+		}
+	}
+	
+	private static void digest(MessageDigest md, byte[] out, int off) {
+		try {
+			md.digest(out, off, LEN);
+		} catch(DigestException e) {
+			throw new java.lang.RuntimeException(e);
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package archer.algorithm.ecdsa;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+public enum KeyFormat {
+	/**
+	 * x and y in 32 bytes each, 64 bytes.
+	 * */
+	RAW(64),
+	
+	/**
+	 * SEC1 uncompressed point, 0x04 followed by x and y in 32 bytes each, 65 bytes.
+	 * */
+	UNCOMPRESSED(65),
+	
+	/**
+	 * SEC1 compressed point, 0x02 for even y or 0x03 for odd y followed by x in 32 bytes, 33 bytes.
+	 * */
+	COMPRESSED(33);
+	
+	final int length;
+	
+	KeyFormat(int length) {
+		this.length = length;
+	}
+	
+	/**
+	 * @return bytes of a public key in this format.
+	 * */
+	public int getLength() {
+		return length;
+	}
+}
@@ -0,0 +1,214 @@
+package archer.algorithm.ecdsa;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+public final class KeyRange {
+	/**
+	 * Points normalized together by one shared inversion.
+	 * */
+	static final int BLOCK = 256;
+	
+	/**
+	 * Parts a parallel walk is cut in per worker, so that uneven workers still finish together.
+	 * */
+	static final int PARTS_PER_WORKER = 4;
+	
+	final Ecdsa ecdsa;
+	final BigInteger start;
+	final long count;
+	final KeyFormat format;
+	
+	/**
+	 * Receives the keys of a range.
+	 * */
+	public interface Sink {
+		/**
+		 * @param index offset of the private key from the start of the range.
+		 * @param publicKey public key of start+index, null if start+index is a multiple of N.
+		 * */
+		void accept(long index, byte[] publicKey);
+	}
+	
+	KeyRange(Ecdsa ecdsa, BigInteger start, long count, KeyFormat format) {
+		if(start.signum() < 0 || count < 0)
+			throw new java.lang.RuntimeException("Invalid key range.");
+		this.ecdsa = ecdsa;
+		this.start = start;
+		this.count = count;
+		this.format = format;
+	}
+	
+	public long size() {
+		return count;
+	}
+	
+	/**
+	 * Walk the range in order on the calling thread.
+	 * */
+	public void forEach(Sink sink) {
+		walk(0, count, sink);
+	}
+	
+	/**
+	 * Walk the range on pool, every part starts with one multiplication and goes on by additions, 
+	 * parts call sink concurrently and out of order.
+	 * */
+	public void forEach(Sink sink, ForkJoinPool pool) {
+		long parts = (long) pool.getParallelism()*PARTS_PER_WORKER;
+		long part = Math.max(BLOCK, (count+parts-1)/parts);
+		pool.invoke(new Part(0, count, part, sink));
+	}
+	
+	/**
+	 * @return public keys of the range in order, a parallel stream splits the range between workers.
+	 * */
+	public Stream<byte[]> stream() {
+		return StreamSupport.stream(new Split(0, count), false);
+	}
+	
+	/**
+	 * Public keys of [from,to), one mixed addition of G per key and one inversion per block.
+	 * */
+	void walk(long from, long to, Sink sink) {
+		if(from >= to)
+			return;
+		Field F = ecdsa.F;
+		Field.Scratch s = F.scratch();
+		int[][] g = ecdsa.toPoint(ecdsa.Gx, ecdsa.Gy);
+		int[][] cur = ecdsa.fastBaseMultiply(start.add(BigInteger.valueOf(from)), s);
+		int[][][] block = new int[(int) Math.min(BLOCK, to-from)][][];
+		for(int j = 0; j < block.length; ++j)
+			block[j] = ecdsa.newPoint();
+		
+		for(long i = from; i < to; ) {
+			int n = (int) Math.min(block.length, to-i);
+			for(int j = 0; j < n; ++j) {
+				ecdsa.setPoint(block[j], cur);
+				ecdsa.fastAdd(cur, cur, g, s);
+			}
+			ecdsa.normalizeAll(n == block.length?block:Arrays.copyOf(block, n), s);
+			for(int j = 0; j < n; ++j) {
+				int[][] p = block[j];
+				sink.accept(i+j, F.isZero(p[2])?null:Ecdsa.encodePublicKey(F.toBigInt(p[0]), F.toBigInt(p[1]), format));
+			}
+			i += n;
+		}
+		Metrics.work(s);
+	}
+	
+	final class Part extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		final long from, to, part;
+		final Sink sink;
+		
+		Part(long from, long to, long part, Sink sink) {
+			this.from = from;
+			this.to = to;
+			this.part = part;
+			this.sink = sink;
+		}
+		
+		@Override
+		protected void compute() {
+			if(to-from <= part) {
+				walk(from, to, sink);
+				return;
+			}
+			long mid = from+(to-from)/2;
+			invokeAll(new Part(from, mid, part, sink), new Part(mid, to, part, sink));
+		}
+	}
+	
+	/**
+	 * Hands keys out one block at a time, splits only between blocks.
+	 * */
+	final class Split implements Spliterator<byte[]> {
+		long from;
+		final long to;
+		byte[][] buffer;
+		int next;
+		
+		Split(long from, long to) {
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		public boolean tryAdvance(Consumer<? super byte[]> action) {
+			if(buffer == null || next == buffer.length) {
+				if(from >= to)
+					return false;
+				long end = Math.min(to, from+BLOCK);
+				byte[][] keys = new byte[(int) (end-from)][];
+				long base = from;
+				walk(from, end, (i, k) -> keys[(int) (i-base)] = k);
+				buffer = keys;
+				next = 0;
+				from = end;
+			}
+			action.accept(buffer[next++]);
+			return true;
+		}
+		
+		@Override
+		public void forEachRemaining(Consumer<? super byte[]> action) {
+			while(buffer != null && next < buffer.length)
+				action.accept(buffer[next++]);
+			walk(from, to, (i, k) -> action.accept(k));
+			from = to;
+		}
+		
+		@Override
+		public Spliterator<byte[]> trySplit() {
+			if((buffer != null && next < buffer.length) || to-from < 2*BLOCK)
+				return null;
+			long mid = from+(to-from)/2;
+			Split prefix = new Split(from, mid);
+			from = mid;
+			return prefix;
+		}
+		
+		@Override
+		public long estimateSize() {
+			return to-from+(buffer == null?0:buffer.length-next);
+		}
+		
+		@Override
+		public int characteristics() {
+			return ORDERED|SIZED|SUBSIZED|IMMUTABLE;
+		}
+	}
+}
@@ -0,0 +1,406 @@
+package archer.algorithm.ecdsa;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+/**
+ * Public keys of one curve in a file mapped read only, outside of the heap and shared by every process 
+ * mapping the same file. Keys are checked and decoded to field elements once by write, a key is then 
+ * addressed by its handle, the index of its record, which find gives from the key id or the key itself.
+ * 
+ * Layout: header, records sorted by id, then an open addressing index on the x coordinates. 
+ * A record is the id, x and y limbs, and with a width the first odd multiples of the key for wNAF of that width.
+ * */
+public final class KeyRegistry implements AutoCloseable {
+	static final int MAGIC = 0x45434b52;
+	static final int VERSION = 1;
+	static final int HEADER = 32;
+	
+	/**
+	 * Most bytes of one mapping, records are mapped in as many segments as needed.
+	 * */
+	static final int SEGMENT = 1<<30;
+	
+	/**
+	 * Keys are checked and their odd multiples normalized by blocks sharing one inversion.
+	 * */
+	static final int BLOCK = 256;
+	
+	static final long GOLDEN = 0x9e3779b97f4a7c15L;
+	
+	final Curve curve;
+	final Field F;
+	final Ecdsa ecdsa;
+	
+	/**
+	 * wNAF width of the odd multiples kept in every record, 0 if none are kept.
+	 * */
+	final int width;
+	final int count;
+	final int recordSize;
+	final int recordsPerSegment;
+	final int slotBits;
+	
+	private volatile ByteBuffer[] segments;
+	private volatile ByteBuffer index;
+	
+	private KeyRegistry(Curve curve, int width, int count, int slotBits, ByteBuffer[] segments, ByteBuffer index) {
+		this.curve = curve;
+		this.F = curve.field;
+		this.ecdsa = Ecdsa.from(curve);
+		this.width = width;
+		this.count = count;
+		this.recordSize = recordSize(F, width);
+		this.recordsPerSegment = Math.max(1, SEGMENT/recordSize);
+		this.slotBits = slotBits;
+		this.segments = segments;
+		this.index = index;
+	}
+	
+	/**
+	 * Check and decode public keys, then write them to file, through a temporary file which replaces it at the end.
+	 * 
+	 * @param file destination.
+	 * @param curve curve of the keys.
+	 * @param ids id of every key, all different.
+	 * @param publicKeys raw, SEC1 uncompressed or SEC1 compressed public keys, same order as ids.
+	 * @param width 0, or a wNAF width in range [2,8] to keep the 2^(width-2) first odd multiples of 
+	 * every key, verify then skips building them.
+	 * */
+	public static void write(Path file, Curve curve, long[] ids, byte[][] publicKeys, int width) throws IOException {
+		if(ids.length != publicKeys.length)
+			throw new java.lang.RuntimeException("Invalid registry, lengths of ids and public keys differ.");
+		if(width != 0 && (width < Ecdsa.WNAF_MIN || width > Ecdsa.WNAF_MAX))
+			throw new java.lang.RuntimeException("Invalid wNAF width, "+width);
+		int n = ids.length;
+		Integer[] order = new Integer[n];
+		for(int i = 0; i < n; ++i)
+			order[i] = i;
+		Arrays.sort(order, (a, b) -> Long.compare(ids[a], ids[b]));
+		for(int i = 1; i < n; ++i)
+			if(ids[order[i]] == ids[order[i-1]])
+				throw new java.lang.RuntimeException("Invalid registry, duplicate id "+ids[order[i]]);
+		
+		Ecdsa ecdsa = Ecdsa.from(curve);
+		Field F = curve.field;
+		int size = recordSize(F, width), slotBits = slotBits(n);
+		int[] slots = new int[1<<slotBits];
+		byte[] name = F.getClass().getName().getBytes(StandardCharsets.US_ASCII);
+		int recordsOff = recordsOffset(name.length);
+		
+		Path tmp = file.resolveSibling(file.getFileName()+".tmp");
+		try(FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, 
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer header = ByteBuffer.allocate(recordsOff);
+			header.putInt(MAGIC).putInt(VERSION).putInt(curve.ordinal()).putInt(F.len).putInt(width)
+				.putInt(n).putInt(slotBits).putInt(name.length).put(name);
+			header.clear();
+			write(ch, header);
+			
+			Field.Scratch s = F.scratch();
+			ByteBuffer block = ByteBuffer.allocate(BLOCK*size);
+			for(int off = 0; off < n; off += BLOCK) {
+				int m = Math.min(BLOCK, n-off);
+				int[][][] points = new int[m][][];
+				int[][][][] odd = new int[m][][][];
+				for(int i = 0; i < m; ++i) {
+					int k = order[off+i];
+					points[i] = decode(ecdsa, publicKeys[k], ids[k]);
+					if(width != 0)
+						odd[i] = ecdsa.oddMultiples(points[i], 1<<(width-2), s);
+					insert(slots, slotBits, points[i][0], off+i);
+				}
+				if(width != 0) {
+					int[][][] all = new int[m<<(width-2)][][];
+					for(int i = 0; i < m; ++i)
+						System.arraycopy(odd[i], 0, all, i<<(width-2), 1<<(width-2));
+					ecdsa.normalizeAll(all, s);
+				}
+				
+				block.clear();
+				for(int i = 0; i < m; ++i) {
+					block.putLong(ids[order[off+i]]);
+					putLimbs(block, points[i][0]);
+					putLimbs(block, points[i][1]);
+					if(width != 0)
+						for(int[][] p: odd[i]) {
+							putLimbs(block, p[0]);
+							putLimbs(block, p[1]);
+						}
+				}
+				block.flip();
+				write(ch, block);
+			}
+			
+			ByteBuffer b = ByteBuffer.allocate(slots.length<<2);
+			b.asIntBuffer().put(slots);
+			write(ch, b);
+			ch.force(true);
+		}
+		Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+	
+	/**
+	 * Map a file written by write. Records are not checked again, the file must come from write.
+	 * 
+	 * @return the registry, close it to drop the mappings, they are released once no longer reachable.
+	 * */
+	public static KeyRegistry open(Path file) throws IOException {
+		try(FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+			long fileSize = ch.size();
+			ByteBuffer header = ByteBuffer.allocate(HEADER);
+			if(fileSize < HEADER || ch.read(header, 0) != HEADER)
+				throw new java.lang.RuntimeException("Invalid registry file, "+file);
+			header.flip();
+			int magic = header.getInt(), version = header.getInt(), ordinal = header.getInt(), len = header.getInt(), 
+					width = header.getInt(), n = header.getInt(), slotBits = header.getInt(), nameLength = header.getInt();
+			Curve[] curves = Curve.values();
+			if(magic != MAGIC || version != VERSION || ordinal < 0 || ordinal >= curves.length || n < 0 
+					|| slotBits != slotBits(n) || nameLength < 0 || nameLength > fileSize-HEADER)
+				throw new java.lang.RuntimeException("Invalid registry file, "+file);
+			Curve curve = curves[ordinal];
+			ByteBuffer name = ByteBuffer.allocate(nameLength);
+			ch.read(name, HEADER);
+			if(len != curve.field.len || (width != 0 && (width < Ecdsa.WNAF_MIN || width > Ecdsa.WNAF_MAX))
+					|| !new String(name.array(), StandardCharsets.US_ASCII).equals(curve.field.getClass().getName()))
+				throw new java.lang.RuntimeException("Invalid registry file, it was written for another field or layout, "+file);
+			
+			int size = recordSize(curve.field, width), perSegment = Math.max(1, SEGMENT/size);
+			long recordsOff = recordsOffset(nameLength), indexOff = recordsOff+(long) n*size;
+			if(fileSize != indexOff+(4L<<slotBits))
+				throw new java.lang.RuntimeException("Invalid registry file, "+file);
+			ByteBuffer[] segments = new ByteBuffer[(n+perSegment-1)/perSegment];
+			for(int i = 0; i < segments.length; ++i) {
+				int records = Math.min(perSegment, n-i*perSegment);
+				segments[i] = ch.map(FileChannel.MapMode.READ_ONLY, recordsOff+(long) i*perSegment*size, (long) records*size);
+			}
+			ByteBuffer index = ch.map(FileChannel.MapMode.READ_ONLY, indexOff, 4L<<slotBits);
+			return new KeyRegistry(curve, width, n, slotBits, segments, index);
+		}
+	}
+	
+	public Curve getCurve() {
+		return curve;
+	}
+	
+	/**
+	 * @return number of keys.
+	 * */
+	public int size() {
+		return count;
+	}
+	
+	/**
+	 * @return handle of the key with id, -1 if there is none.
+	 * */
+	public int find(long id) {
+		int lo = 0, hi = count-1;
+		while(lo <= hi) {
+			int mid = (lo+hi)>>>1;
+			long v = id(mid);
+			if(v < id)
+				lo = mid+1;
+			else if(v > id)
+				hi = mid-1;
+			else
+				return mid;
+		}
+		return -1;
+	}
+	
+	/**
+	 * @param publicKey raw, SEC1 uncompressed or SEC1 compressed public key.
+	 * 
+	 * @return handle of the key, -1 if it is not registered or malformed.
+	 * */
+	public int find(byte[] publicKey) {
+		BigInteger[] q;
+		try {
+			q = ecdsa.readPublicKey(ByteBuffer.wrap(publicKey));
+		} catch(RuntimeException e) {
+			return -1;
+		}
+		if(q[0].compareTo(curve.P) >= 0 || q[1].compareTo(curve.P) >= 0)
+			return -1;
+		int[] x = F.fromBigInt(q[0]), y = F.fromBigInt(q[1]);
+		ByteBuffer index = index();
+		int mask = (1<<slotBits)-1;
+		for(int slot = slot(x, slotBits);; slot = (slot+1)&mask) {
+			int key = index.getInt(slot<<2)-1;
+			if(key < 0)
+				return -1;
+			ByteBuffer b = segment(key);
+			int off = offset(key)+8;
+			if(equals(b, off, x) && equals(b, off+(F.len<<2), y))
+				return key;
+		}
+	}
+	
+	/**
+	 * @return id of the key.
+	 * */
+	public long id(int key) {
+		return segment(key).getLong(offset(key));
+	}
+	
+	/**
+	 * @return public key in format.
+	 * */
+	public byte[] publicKey(int key, KeyFormat format) {
+		int[][] q = point(key);
+		return Ecdsa.encodePublicKey(F.toBigInt(q[0]), F.toBigInt(q[1]), format);
+	}
+	
+	/**
+	 * Drop the mappings, handles are no longer valid afterwards.
+	 * */
+	@Override
+	public void close() {
+		segments = null;
+		index = null;
+	}
+	
+	/**
+	 * @return key point in jacobian coordinates, z = 1.
+	 * */
+	int[][] point(int key) {
+		ByteBuffer b = segment(key);
+		int off = offset(key)+8;
+		return new int[][] {getLimbs(b, off, F.len), getLimbs(b, off+(F.len<<2), F.len), F.one.clone()};
+	}
+	
+	/**
+	 * @return odd multiples of the key with z = 1, null if the registry keeps none.
+	 * */
+	int[][][] oddMultiples(int key) {
+		if(width == 0)
+			return null;
+		ByteBuffer b = segment(key);
+		int off = offset(key)+8+(F.len<<3);
+		int[] one = F.one.clone();
+		int[][][] out = new int[1<<(width-2)][][];
+		for(int i = 0; i < out.length; ++i, off += F.len<<3)
+			out[i] = new int[][] {getLimbs(b, off, F.len), getLimbs(b, off+(F.len<<2), F.len), one};
+		return out;
+	}
+	
+	private ByteBuffer segment(int key) {
+		ByteBuffer[] s = segments;
+		if(s == null)
+			throw new java.lang.RuntimeException("Registry is closed.");
+		if(key < 0 || key >= count)
+			throw new java.lang.RuntimeException("Invalid key handle, "+key);
+		return s[key/recordsPerSegment];
+	}
+	
+	private ByteBuffer index() {
+		ByteBuffer b = index;
+		if(b == null)
+			throw new java.lang.RuntimeException("Registry is closed.");
+		return b;
+	}
+	
+	private int offset(int key) {
+		return (key%recordsPerSegment)*recordSize;
+	}
+	
+	/**
+	 * @return point of a checked public key, z = 1.
+	 * */
+	static int[][] decode(Ecdsa ecdsa, byte[] publicKey, long id) {
+		BigInteger[] q;
+		try {
+			q = ecdsa.readPublicKey(ByteBuffer.wrap(publicKey));
+		} catch(RuntimeException e) {
+			throw new java.lang.RuntimeException("Invalid public key of id "+id, e);
+		}
+		if(!ecdsa.isOnCurve(q[0], q[1]))
+			throw new java.lang.RuntimeException("Invalid public key of id "+id+", it is not on "+ecdsa.curve);
+		return ecdsa.toPoint(q[0], q[1]);
+	}
+	
+	static int recordSize(Field F, int width) {
+		return 8+(F.len<<3)*(1+(width == 0?0:1<<(width-2)));
+	}
+	
+	static int recordsOffset(int nameLength) {
+		return (HEADER+nameLength+7)&~7;
+	}
+	
+	/**
+	 * @return bits of the number of slots, at least twice as many slots as keys and at least two slots.
+	 * */
+	static int slotBits(int n) {
+		//2*0-1 would give 64 bits, a shift by 64 is a shift by 0
+		return 64-Long.numberOfLeadingZeros(Math.max(1, 2L*n-1));
+	}
+	
+	static int slot(int[] x, int bits) {
+		long h = ((x[0]&Field.M)|((long) x[1]<<32))*GOLDEN;
+		return (int) (h>>>(64-bits));
+	}
+	
+	private static void insert(int[] slots, int bits, int[] x, int key) {
+		int slot = slot(x, bits);
+		while(slots[slot] != 0)
+			slot = (slot+1)&(slots.length-1);
+		slots[slot] = key+1;
+	}
+	
+	private static boolean equals(ByteBuffer b, int off, int[] a) {
+		for(int i = 0; i < a.length; ++i)
+			if(b.getInt(off+(i<<2)) != a[i])
+				return false;
+		return true;
+	}
+	
+	private static int[] getLimbs(ByteBuffer b, int off, int len) {
+		int[] a = new int[len];
+		for(int i = 0; i < len; ++i)
+			a[i] = b.getInt(off+(i<<2));
+		return a;
+	}
+	
+	private static void putLimbs(ByteBuffer b, int[] a) {
+		for(int x: a)
+			b.putInt(x);
+	}
+	
+	private static void write(FileChannel ch, ByteBuffer b) throws IOException {
+		while(b.hasRemaining())
+			ch.write(b);
+	}
+}
@@ -0,0 +1,322 @@
+package archer.algorithm.ecdsa;
+
+import java.math.BigInteger;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+/**
+ * Arithmetic on several independent elements of a field at once, one element per lane. An element of 
+ * all the lanes is a long[len*lanes] holding limb i of lane k at i*lanes+k, every limb is a 32 bits value, 
+ * elements are kept in Montgomery form x*2^(32*len) mod P whatever the representation of the field. 
+ * The implementation lives in VectorLaneField, which is only compiled by the vector profile and needs 
+ * the jdk.incubator.vector module at runtime, without it the callers keep their scalar path.
+ * */
+abstract class LaneField {
+	/**
+	 * System property, "false" keeps every caller on the scalar path.
+	 * */
+	static final String PROPERTY = "archer.ecdsa.vector";
+	
+	static final String IMPLEMENTATION = "archer.algorithm.ecdsa.VectorLaneField";
+	
+	static final long M = 0xffffffffL;
+	
+	final Field F;
+	final int len;
+	final int lanes;
+	
+	/**
+	 * -P^-1 mod 2^32.
+	 * */
+	final long n0;
+	
+	/**
+	 * One in Montgomery form, and the factors taking an element from the representation of F to 
+	 * Montgomery form and back, all of them broadcast to every lane.
+	 * */
+	final long[] one;
+	final long[] toMont;
+	final long[] fromMont;
+	
+	private volatile Table table;
+	
+	LaneField(Field F, int lanes) {
+		this.F = F;
+		this.len = F.len;
+		this.lanes = lanes;
+		BigInteger R = BigInteger.ONE.shiftLeft(len<<5);
+		n0 = R.subtract(F.P.modInverse(BigInteger.ONE.shiftLeft(32))).longValue()&M;
+		one = broadcast(Field.toLimbs(R.mod(F.P), len));
+		//mont(x*RF, R^2/RF) = x*R, mont(x*R, RF) = x*RF
+		toMont = broadcast(Field.toLimbs(R.multiply(R).multiply(F.RInv).mod(F.P), len));
+		fromMont = broadcast(Field.toLimbs(F.R, len));
+	}
+	
+	/**
+	 * @param F field of a curve.
+	 * 
+	 * @return lanes over F, null if F is not 256 bits wide, if the vector module or the implementation 
+	 * is missing, or if the cpu has no vector unit of at least 256 bits.
+	 * */
+	static LaneField of(Field F) {
+		if(F.len != 8 || "false".equalsIgnoreCase(System.getProperty(PROPERTY)))
+			return null;
+		try {
+			return (LaneField) Class.forName(IMPLEMENTATION).getDeclaredConstructor(Field.class).newInstance(F);
+		} catch(ReflectiveOperationException | LinkageError | RuntimeException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * @return temporaries for mul.
+	 * */
+	long[] scratch() {
+		return new long[3*len*lanes];
+	}
+	
+	long[] newElement() {
+		return new long[len*lanes];
+	}
+	
+	/**
+	 * r = a*b*2^-(32*len) mod P in every lane, r may be a or b.
+	 * */
+	abstract void mul(long[] r, long[] a, long[] b, long[] t);
+	
+	/**
+	 * r = a+b mod P in every lane, r may be a or b.
+	 * */
+	abstract void add(long[] r, long[] a, long[] b);
+	
+	/**
+	 * r = a-b mod P in every lane, r may be a or b.
+	 * */
+	abstract void sub(long[] r, long[] a, long[] b);
+	
+	/**
+	 * @return bit k set if lane k of a is zero.
+	 * */
+	abstract long zeros(long[] a);
+	
+	/**
+	 * r = a in the lanes whose bit is set in mask, the other lanes of r are kept.
+	 * */
+	abstract void blend(long[] r, long[] a, long mask);
+	
+	void sqr(long[] r, long[] a, long[] t) {
+		mul(r, a, a, t);
+	}
+	
+	/**
+	 * Write the limbs of a field element of F in lane k, the element still has to be brought to Montgomery form.
+	 * */
+	void set(long[] r, int k, int[] a) {
+		for(int i = 0; i < len; ++i)
+			r[i*lanes+k] = a[i]&M;
+	}
+	
+	/**
+	 * @return limbs of lane k of a.
+	 * */
+	int[] get(long[] a, int k) {
+		int[] r = new int[len];
+		for(int i = 0; i < len; ++i)
+			r[i] = (int) a[i*lanes+k];
+		return r;
+	}
+	
+	long[] broadcast(int[] a) {
+		long[] r = newElement();
+		for(int k = 0; k < lanes; ++k)
+			set(r, k, a);
+		return r;
+	}
+	
+	/**
+	 * r = a^e in every lane, fixed windows of 4 bits.
+	 * */
+	void pow(long[] r, long[] a, BigInteger e, long[] t) {
+		long[][] powers = new long[16][];
+		powers[1] = a.clone();
+		for(int i = 2; i < powers.length; ++i) {
+			powers[i] = newElement();
+			mul(powers[i], powers[i-1], a, t);
+		}
+		long[] acc = one.clone();
+		for(int i = ((e.bitLength()+3)>>2)-1; i >= 0; --i) {
+			for(int j = 0; j < 4; ++j)
+				sqr(acc, acc, t);
+			int d = 0;
+			for(int j = 3; j >= 0; --j)
+				d = (d<<1)|(e.testBit((i<<2)+j)?1:0);
+			if(d != 0)
+				mul(acc, acc, powers[d], t);
+		}
+		System.arraycopy(acc, 0, r, 0, acc.length);
+	}
+	
+	/**
+	 * @param a numbers in range [0,P).
+	 * @param e exponent, the same for every number.
+	 * 
+	 * @return a[i]^e mod P for every i.
+	 * */
+	BigInteger[] pow(BigInteger[] a, BigInteger e) {
+		BigInteger[] out = new BigInteger[a.length];
+		long[] t = scratch(), x = newElement();
+		for(int off = 0; off < a.length; off += lanes) {
+			int count = Math.min(lanes, a.length-off);
+			for(int k = 0; k < count; ++k)
+				set(x, k, F.fromBigInt(a[off+k]));
+			mul(x, x, toMont, t);
+			pow(x, x, e, t);
+			mul(x, x, fromMont, t);
+			for(int k = 0; k < count; ++k)
+				out[off+k] = F.toBigInt(get(x, k));
+		}
+		return out;
+	}
+	
+	/**
+	 * Multiply every point of table by the scalar of its lane, one lane per scalar. Lanes only add points of 
+	 * the table, the rare lane whose addition turns into a doubling is left to the scalar path.
+	 * 
+	 * @param table table of the base point, see FixedBaseTable.
+	 * @param n scalars in range [0,N).
+	 * @param out receives n[i]*G in jacobian coordinates of F, null where the scalar path must be used.
+	 * */
+	void multiply(FixedBaseTable table, BigInteger[] n, int[][][] out) {
+		int[][][][] points = lanePoints(table);
+		long[] t = scratch();
+		long[] X = newElement(), Y = newElement(), Z = newElement(), x2 = newElement(), y2 = newElement();
+		long[] zz = newElement(), u2 = newElement(), s2 = newElement(), h = newElement(), r = newElement(), 
+				hh = newElement(), hhh = newElement(), v = newElement(), X3 = newElement(), Y3 = newElement(), Z3 = newElement();
+		int[] d = new int[lanes];
+		for(int off = 0; off < n.length; off += lanes) {
+			int count = Math.min(lanes, n.length-off);
+			long inf = -1L, bad = 0;
+			for(int i = 0; i < table.windows; ++i) {
+				long has = 0;
+				for(int k = 0; k < lanes; ++k) {
+					d[k] = 0;
+					if(k < count)
+						for(int j = FixedBaseTable.W-1; j >= 0; --j)
+							d[k] = (d[k]<<1)|(n[off+k].testBit(i*FixedBaseTable.W+j)?1:0);
+					if(d[k] == 0)
+						continue;
+					has |= 1L<<k;
+					set(x2, k, points[i][d[k]-1][0]);
+					set(y2, k, points[i][d[k]-1][1]);
+				}
+				if(has == 0)
+					continue;
+				
+				//jacobian + affine, 8M+3S
+				sqr(zz, Z, t);
+				mul(u2, x2, zz, t);
+				mul(s2, Z, zz, t);
+				mul(s2, y2, s2, t);
+				sub(h, u2, X);
+				sub(r, s2, Y);
+				sqr(hh, h, t);
+				mul(hhh, h, hh, t);
+				mul(v, X, hh, t);
+				sqr(X3, r, t);
+				sub(X3, X3, hhh);
+				sub(X3, X3, v);
+				sub(X3, X3, v);
+				sub(Y3, v, X3);
+				mul(Y3, r, Y3, t);
+				mul(s2, Y, hhh, t);
+				sub(Y3, Y3, s2);
+				mul(Z3, Z, h, t);
+				
+				bad |= zeros(h)&has&~inf;
+				long first = has&inf, next = has&~inf;
+				blend(X, x2, first);
+				blend(Y, y2, first);
+				blend(Z, one, first);
+				blend(X, X3, next);
+				blend(Y, Y3, next);
+				blend(Z, Z3, next);
+				inf &= ~has;
+			}
+			
+			mul(X, X, fromMont, t);
+			mul(Y, Y, fromMont, t);
+			mul(Z, Z, fromMont, t);
+			for(int k = 0; k < count; ++k) {
+				if((bad>>>k&1) != 0)
+					out[off+k] = null;
+				else if((inf>>>k&1) != 0)
+					out[off+k] = new int[][] {F.zero.clone(), F.zero.clone(), F.zero.clone()};
+				else
+					out[off+k] = new int[][] {get(X, k), get(Y, k), get(Z, k)};
+			}
+		}
+	}
+	
+	/**
+	 * @return affine points of table in Montgomery form, converted once per table.
+	 * */
+	int[][][][] lanePoints(FixedBaseTable table) {
+		Table c = this.table;
+		if(c != null && c.source == table)
+			return c.points;
+		int[][][][] points = new int[table.windows][FixedBaseTable.SIZE][2][];
+		//every coordinate of every point, x and y in turn
+		int[][] all = new int[table.windows*FixedBaseTable.SIZE*2][];
+		for(int e = 0; e < all.length; ++e)
+			all[e] = table.points[(e>>1)/FixedBaseTable.SIZE][(e>>1)%FixedBaseTable.SIZE][e&1];
+		long[] t = scratch(), a = newElement();
+		for(int off = 0; off < all.length; off += lanes) {
+			int count = Math.min(lanes, all.length-off);
+			for(int k = 0; k < count; ++k)
+				set(a, k, all[off+k]);
+			mul(a, a, toMont, t);
+			for(int k = 0; k < count; ++k) {
+				int e = off+k;
+				points[(e>>1)/FixedBaseTable.SIZE][(e>>1)%FixedBaseTable.SIZE][e&1] = get(a, k);
+			}
+		}
+		this.table = new Table(table, points);
+		return points;
+	}
+	
+	/**
+	 * A table and its points converted by lanePoints.
+	 * */
+	static final class Table {
+		final FixedBaseTable source;
+		final int[][][][] points;
+		
+		Table(FixedBaseTable source, int[][][][] points) {
+			this.source = source;
+			this.points = points;
+		}
+	}
+}
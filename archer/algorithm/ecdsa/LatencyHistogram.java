@@ -0,0 +1,110 @@
+package archer.algorithm.ecdsa;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+public final class LatencyHistogram implements MetricsListener {
+	/**
+	 * Every power of two is split in 2^SUB_BITS buckets, values are kept within 1/2^SUB_BITS of their size.
+	 * */
+	static final int SUB_BITS = 4;
+	static final int SUB = 1<<SUB_BITS;
+	static final int BUCKETS = SUB*(64-SUB_BITS);
+	
+	private final AtomicLongArray[][] buckets;
+	
+	public LatencyHistogram() {
+		int n = Curve.values().length, m = Metrics.Operation.values().length;
+		buckets = new AtomicLongArray[n][m];
+		for(int i = 0; i < n; ++i)
+			for(int j = 0; j < m; ++j)
+				buckets[i][j] = new AtomicLongArray(BUCKETS);
+	}
+	
+	@Override
+	public void onOperation(Curve curve, Metrics.Operation op, long nanos) {
+		buckets[curve.ordinal()][op.ordinal()].incrementAndGet(bucket(Math.max(0, nanos)));
+	}
+	
+	/**
+	 * @return recorded operations.
+	 * */
+	public long count(Curve curve, Metrics.Operation op) {
+		AtomicLongArray b = buckets[curve.ordinal()][op.ordinal()];
+		long n = 0;
+		for(int i = 0; i < BUCKETS; ++i)
+			n += b.get(i);
+		return n;
+	}
+	
+	/**
+	 * @param percentile in range [0,100].
+	 * 
+	 * @return nanoseconds which percentile percent of the operations did not exceed, 0 if there was none.
+	 * */
+	public long percentile(Curve curve, Metrics.Operation op, double percentile) {
+		AtomicLongArray b = buckets[curve.ordinal()][op.ordinal()];
+		long[] counts = new long[BUCKETS];
+		long n = 0;
+		for(int i = 0; i < BUCKETS; ++i)
+			n += counts[i] = b.get(i);
+		if(n == 0)
+			return 0;
+		long rank = Math.max(1, (long) Math.ceil(n*Math.min(100, Math.max(0, percentile))/100));
+		long seen = 0;
+		for(int i = 0; i < BUCKETS; ++i) {
+			seen += counts[i];
+			if(seen >= rank)
+				return highest(i);
+		}
+		return highest(BUCKETS-1);
+	}
+	
+	public void reset() {
+		for(AtomicLongArray[] bs: buckets)
+			for(AtomicLongArray b: bs)
+				for(int i = 0; i < BUCKETS; ++i)
+					b.set(i, 0);
+	}
+	
+	static int bucket(long v) {
+		if(v < SUB)
+			return (int) v;
+		int m = 63-Long.numberOfLeadingZeros(v);
+		return SUB*(m-SUB_BITS+1)+(int) (v>>>(m-SUB_BITS))-SUB;
+	}
+	
+	/**
+	 * @return largest value of bucket i.
+	 * */
+	static long highest(int i) {
+		if(i < SUB)
+			return i;
+		int m = i/SUB+SUB_BITS-1, sub = i%SUB;
+		return ((long) (SUB+sub+1)<<(m-SUB_BITS))-1;
+	}
+}
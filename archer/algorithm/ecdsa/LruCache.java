@@ -0,0 +1,132 @@
+package archer.algorithm.ecdsa;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+final class LruCache<K, V> {
+	/**
+	 * Number of independently locked parts, a power of two.
+	 * */
+	static final int STRIPES = 16;
+	
+	private final Stripe<K, V>[] stripes;
+	final int capacity;
+	
+	final LongAdder hits = new LongAdder();
+	final LongAdder misses = new LongAdder();
+	final LongAdder evictions = new LongAdder();
+	
+	/**
+	 * @param capacity most entries kept, every stripe holds an equal share of it in least recently used order.
+	 * */
+	LruCache(int capacity) {
+		if(capacity < 1)
+			throw new java.lang.RuntimeException("Invalid cache capacity, "+capacity);
+		this.capacity = capacity;
+		//small caches take fewer stripes so that every stripe keeps a usable share
+		int n = Math.min(STRIPES, Math.max(1, Integer.highestOneBit(capacity>>4)));
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		Stripe<K, V>[] s = (Stripe<K, V>[]) new Stripe[n];
+		for(int i = 0; i < n; ++i)
+			s[i] = new Stripe<>((capacity+n-1)/n, evictions);
+		stripes = s;
+	}
+	
+	private Stripe<K, V> stripe(Object k) {
+		int h = k.hashCode();
+		h ^= h>>>16;
+		return stripes[h&(stripes.length-1)];
+	}
+	
+	/**
+	 * @return cached value, null if there is none.
+	 * */
+	V get(K k) {
+		Stripe<K, V> s = stripe(k);
+		V v;
+		synchronized(s) {
+			v = s.get(k);
+		}
+		(v == null?misses:hits).increment();
+		return v;
+	}
+	
+	void put(K k, V v) {
+		Stripe<K, V> s = stripe(k);
+		synchronized(s) {
+			s.put(k, v);
+		}
+	}
+	
+	int size() {
+		int n = 0;
+		for(Stripe<K, V> s: stripes) {
+			synchronized(s) {
+				n += s.size();
+			}
+		}
+		return n;
+	}
+	
+	/**
+	 * @return snapshot of the counters, they are read one by one without stopping other threads.
+	 * */
+	CacheStats stats() {
+		return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size(), capacity);
+	}
+	
+	void clear() {
+		for(Stripe<K, V> s: stripes) {
+			synchronized(s) {
+				s.clear();
+			}
+		}
+	}
+	
+	private static final class Stripe<K, V> extends LinkedHashMap<K, V> {
+		private static final long serialVersionUID = 1L;
+		
+		final int max;
+		final LongAdder evictions;
+		
+		Stripe(int max, LongAdder evictions) {
+			super(16, 0.75f, true);
+			this.max = max;
+			this.evictions = evictions;
+		}
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+			if(size() <= max)
+				return false;
+			evictions.increment();
+			return true;
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package archer.algorithm.ecdsa;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+public final class Metrics {
+	
+	/**
+	 * Public operations timed per curve.
+	 * */
+	public enum Operation {
+		SIGN, VERIFY, RECOVER, PUBLIC_KEY
+	}
+	
+	/**
+	 * Low level work counted over every curve.
+	 * */
+	public enum Work {
+		POINT_DOUBLE, POINT_ADD, FIELD_INV, HMAC
+	}
+	
+	/**
+	 * Read on every instrumented call, off by default so the hot paths only pay one load and one branch.
+	 * */
+	static volatile boolean enabled;
+	private static volatile MetricsListener listener;
+	
+	private static final LongAdder[][] COUNTS = adders(Curve.values().length, Operation.values().length);
+	private static final LongAdder[][] NANOS = adders(Curve.values().length, Operation.values().length);
+	private static final LongAdder[] WORK = adders(1, Work.values().length)[0];
+	
+	private Metrics() {
+	}
+	
+	/**
+	 * Start counting and timing, and emitting archer.ecdsa.Operation events to JFR recordings which enable them.
+	 * 
+	 * @param l called synchronously after every timed operation, it must be cheap and thread safe, null for none.
+	 * */
+	public static void enable(MetricsListener l) {
+		listener = l;
+		enabled = true;
+	}
+	
+	public static void disable() {
+		enabled = false;
+		listener = null;
+	}
+	
+	public static boolean isEnabled() {
+		return enabled;
+	}
+	
+	/**
+	 * @return operations finished while enabled.
+	 * */
+	public static long count(Curve curve, Operation op) {
+		return COUNTS[curve.ordinal()][op.ordinal()].sum();
+	}
+	
+	/**
+	 * @return nanoseconds spent in operations finished while enabled.
+	 * */
+	public static long totalNanos(Curve curve, Operation op) {
+		return NANOS[curve.ordinal()][op.ordinal()].sum();
+	}
+	
+	/**
+	 * @return low level work done while enabled.
+	 * */
+	public static long count(Work w) {
+		return WORK[w.ordinal()].sum();
+	}
+	
+	public static void reset() {
+		for(LongAdder[] as: COUNTS)
+			for(LongAdder a: as)
+				a.reset();
+		for(LongAdder[] as: NANOS)
+			for(LongAdder a: as)
+				a.reset();
+		for(LongAdder a: WORK)
+			a.reset();
+	}
+	
+	/**
+	 * @return start time for stop, Long.MIN_VALUE when disabled, nanoTime may return any value including 0.
+	 * */
+	static long start() {
+		return enabled?System.nanoTime():Long.MIN_VALUE;
+	}
+	
+	/**
+	 * @param s scratch of the operation, its work counts are flushed too.
+	 * */
+	static void stop(Curve curve, Operation op, long start, Field.Scratch s) {
+		if(start == Long.MIN_VALUE || !enabled)
+			return;
+		work(s);
+		long nanos = System.nanoTime()-start;
+		COUNTS[curve.ordinal()][op.ordinal()].increment();
+		NANOS[curve.ordinal()][op.ordinal()].add(nanos);
+		MetricsListener l = listener;
+		if(l != null)
+			l.onOperation(curve, op, nanos);
+		OperationEvent.emit(curve, op, nanos);
+	}
+	
+	static void count(Work w, int n) {
+		if(enabled && n != 0)
+			WORK[w.ordinal()].add(n);
+	}
+	
+	/**
+	 * Add the work counted in s and clear it, called once at the end of an operation.
+	 * */
+	static void work(Field.Scratch s) {
+		count(Work.POINT_DOUBLE, s.doubles);
+		count(Work.POINT_ADD, s.adds);
+		count(Work.FIELD_INV, s.invs);
+		s.doubles = s.adds = s.invs = 0;
+	}
+	
+	private static LongAdder[][] adders(int n, int m) {
+		LongAdder[][] out = new LongAdder[n][m];
+		for(int i = 0; i < n; ++i)
+			for(int j = 0; j < m; ++j)
+				out[i][j] = new LongAdder();
+		return out;
+	}
+}
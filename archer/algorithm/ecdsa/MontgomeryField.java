@@ -0,0 +1,78 @@
+package archer.algorithm.ecdsa;
+
+import java.math.BigInteger;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+
+/**
+ * Montgomery multiplication (CIOS) for any odd prime, elements are kept as x*2^(32*len) mod P.
+ * */
+final class MontgomeryField extends Field {
+	/**
+	 * -P^-1 mod 2^32.
+	 * */
+	final long n0;
+	
+	MontgomeryField(BigInteger P) {
+		super(P, BigInteger.ONE.shiftLeft(((P.bitLength()+31)>>5)<<5));
+		n0 = BigInteger.ONE.shiftLeft(32).subtract(P.modInverse(BigInteger.ONE.shiftLeft(32))).longValue();
+	}
+	
+	@Override
+	void mul(int[] r, int[] a, int[] b, long[] t) {
+		int n = len;
+		for(int i = 0; i <= n+1; ++i)
+			t[i] = 0;
+		for(int i = 0; i < n; ++i) {
+			long bi = b[i]&M, c = 0;
+			for(int j = 0; j < n; ++j) {
+				c += t[j]+(a[j]&M)*bi;
+				t[j] = c&M;
+				c >>>= 32;
+			}
+			c += t[n];
+			t[n] = c&M;
+			t[n+1] = c>>>32;
+			
+			long m = (t[0]*n0)&M;
+			c = t[0]+m*(p[0]&M);
+			c >>>= 32;
+			for(int j = 1; j < n; ++j) {
+				c += t[j]+m*(p[j]&M);
+				t[j-1] = c&M;
+				c >>>= 32;
+			}
+			c += t[n];
+			t[n-1] = c&M;
+			t[n] = t[n+1]+(c>>>32);
+		}
+		for(int i = 0; i < n; ++i)
+			r[i] = (int) t[i];
+		if(t[n] != 0 || geq(r, p))
+			subP(r);
+	}
+}
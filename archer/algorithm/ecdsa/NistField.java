@@ -0,0 +1,137 @@
+package archer.algorithm.ecdsa;
+
+import java.math.BigInteger;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+
+/**
+ * Fast reduction of the generalized mersenne primes of FIPS 186 (secp192r1, secp224r1, secp256r1),
+ * the high words of a product are added and subtracted back onto the low words.
+ * */
+final class NistField extends Field {
+	static final BigInteger P192 = BigInteger.ONE.shiftLeft(192).subtract(BigInteger.ONE.shiftLeft(64)).subtract(BigInteger.ONE);
+	static final BigInteger P224 = BigInteger.ONE.shiftLeft(224).subtract(BigInteger.ONE.shiftLeft(96)).add(BigInteger.ONE);
+	static final BigInteger P256 = BigInteger.ONE.shiftLeft(256).subtract(BigInteger.ONE.shiftLeft(224))
+			.add(BigInteger.ONE.shiftLeft(192)).add(BigInteger.ONE.shiftLeft(96)).subtract(BigInteger.ONE);
+	
+	NistField(BigInteger P) {
+		super(P, BigInteger.ONE);
+		if(!supports(P))
+			throw new java.lang.RuntimeException("Invalid prime for nist reduction, "+P.toString(16));
+	}
+	
+	static boolean supports(BigInteger P) {
+		return P.equals(P192) || P.equals(P224) || P.equals(P256);
+	}
+	
+	@Override
+	void mul(int[] r, int[] a, int[] b, long[] t) {
+		mulWide(t, a, b);
+		reduce(r, t);
+	}
+	
+	@Override
+	void sqr(int[] r, int[] a, long[] t) {
+		sqrWide(t, a);
+		reduce(r, t);
+	}
+	
+	void reduce(int[] r, long[] t) {
+		if(len == 8)
+			reduce256(r, t);
+		else if(len == 7)
+			reduce224(r, t);
+		else
+			reduce192(r, t);
+	}
+	
+	/**
+	 * r = t mod P192, p = 2^192 - 2^64 - 1.
+	 * */
+	void reduce192(int[] r, long[] t) {
+		long c = 0;
+		c += t[0]+t[6]+t[10];
+		r[0] = (int) c; c >>= 32;
+		c += t[1]+t[7]+t[11];
+		r[1] = (int) c; c >>= 32;
+		c += t[2]+t[6]+t[8]+t[10];
+		r[2] = (int) c; c >>= 32;
+		c += t[3]+t[7]+t[9]+t[11];
+		r[3] = (int) c; c >>= 32;
+		c += t[4]+t[8]+t[10];
+		r[4] = (int) c; c >>= 32;
+		c += t[5]+t[9]+t[11];
+		r[5] = (int) c; c >>= 32;
+		finish(r, c);
+	}
+	
+	/**
+	 * r = t mod P224, p = 2^224 - 2^96 + 1.
+	 * */
+	void reduce224(int[] r, long[] t) {
+		long c = 0;
+		c += t[0]-t[7]-t[11];
+		r[0] = (int) c; c >>= 32;
+		c += t[1]-t[8]-t[12];
+		r[1] = (int) c; c >>= 32;
+		c += t[2]-t[9]-t[13];
+		r[2] = (int) c; c >>= 32;
+		c += t[3]+t[7]+t[11]-t[10];
+		r[3] = (int) c; c >>= 32;
+		c += t[4]+t[8]+t[12]-t[11];
+		r[4] = (int) c; c >>= 32;
+		c += t[5]+t[9]+t[13]-t[12];
+		r[5] = (int) c; c >>= 32;
+		c += t[6]+t[10]-t[13];
+		r[6] = (int) c; c >>= 32;
+		finish(r, c);
+	}
+	
+	/**
+	 * r = t mod P256, p = 2^256 - 2^224 + 2^192 + 2^96 - 1.
+	 * */
+	void reduce256(int[] r, long[] t) {
+		long c = 0;
+		c += t[0]+t[8]+t[9]-t[11]-t[12]-t[13]-t[14];
+		r[0] = (int) c; c >>= 32;
+		c += t[1]+t[9]+t[10]-t[12]-t[13]-t[14]-t[15];
+		r[1] = (int) c; c >>= 32;
+		c += t[2]+t[10]+t[11]-t[13]-t[14]-t[15];
+		r[2] = (int) c; c >>= 32;
+		c += t[3]+2*(t[11]+t[12])+t[13]-t[15]-t[8]-t[9];
+		r[3] = (int) c; c >>= 32;
+		c += t[4]+2*(t[12]+t[13])+t[14]-t[9]-t[10];
+		r[4] = (int) c; c >>= 32;
+		c += t[5]+2*(t[13]+t[14])+t[15]-t[10]-t[11];
+		r[5] = (int) c; c >>= 32;
+		c += t[6]+3*t[14]+2*t[15]+t[13]-t[8]-t[9];
+		r[6] = (int) c; c >>= 32;
+		c += t[7]+3*t[15]+t[8]-t[10]-t[11]-t[12]-t[13];
+		r[7] = (int) c; c >>= 32;
+		finish(r, c);
+	}
+}
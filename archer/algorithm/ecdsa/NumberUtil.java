@@ -97,14 +97,7 @@ public class NumberUtil {
 	public static BigInteger bytesToBigInt(byte[] bs) {
 		if(null == bs || bs.length == 0)
 			return BigInteger.ZERO;
-		BigInteger num = BigInteger.ZERO;
-		for(byte b: bs) {
-			int n = b;
-			if(n < 0)
-				n += 256;
-			num = num.shiftLeft(8).add(BigInteger.valueOf(n));
-		}
-		return num;
+		return new BigInteger(1, bs);
 	}
 
     /**
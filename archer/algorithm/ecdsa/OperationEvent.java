@@ -0,0 +1,69 @@
+package archer.algorithm.ecdsa;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+@Name("archer.ecdsa.Operation")
+@Label("ECDSA Operation")
+@Category("ECDSA")
+@Description("A sign, verify, recover or public key derivation finished while Metrics was enabled.")
+final class OperationEvent extends Event {
+	/**
+	 * Checked before allocating, so nothing is created unless a recording enables the event.
+	 * */
+	static final EventType EVENT_TYPE = EventType.getEventType(OperationEvent.class);
+	
+	@Label("Curve")
+	String curve;
+	
+	@Label("Operation")
+	String operation;
+	
+	/**
+	 * Time measured by Metrics, the only duration of the event, it is committed without begin and end 
+	 * when the operation has finished so the built in duration stays 0.
+	 * */
+	@Label("Operation Duration")
+	@Timespan(Timespan.NANOSECONDS)
+	long nanos;
+	
+	static void emit(Curve curve, Metrics.Operation op, long nanos) {
+		if(!EVENT_TYPE.isEnabled())
+			return;
+		OperationEvent e = new OperationEvent();
+		e.curve = curve.name();
+		e.operation = op.name();
+		e.nanos = nanos;
+		e.commit();
+	}
+}
@@ -0,0 +1,58 @@
+package archer.algorithm.ecdsa;
+
+import java.math.BigInteger;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+/**
+ * Private key decoded once for many signatures, see Ecdsa.privateKeyHandle. It keeps the octets 
+ * seeding the nonce and the handle of its public key. Immutable and safe to share between threads.
+ * */
+public final class PrivateKeyHandle {
+	final Curve curve;
+	final BigInteger priv;
+	
+	/**
+	 * priv in octets of the length of N.
+	 * */
+	final byte[] octets;
+	final PublicKeyHandle publicKey;
+	
+	PrivateKeyHandle(Curve curve, BigInteger priv, byte[] octets, PublicKeyHandle publicKey) {
+		this.curve = curve;
+		this.priv = priv;
+		this.octets = octets;
+		this.publicKey = publicKey;
+	}
+	
+	public Curve getCurve() {
+		return curve;
+	}
+	
+	public PublicKeyHandle getPublicKey() {
+		return publicKey;
+	}
+}
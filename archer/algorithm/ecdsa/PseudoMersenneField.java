@@ -0,0 +1,116 @@
+package archer.algorithm.ecdsa;
+
+import java.math.BigInteger;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+
+/**
+ * Primes of the form P = 2^(32*len) - 2^32 - c0 like the secp*k1 curves, 
+ * the high half of a product is folded onto the low half since 2^(32*len) = 2^32 + c0 (mod = P).
+ * */
+final class PseudoMersenneField extends Field {
+	/**
+	 * c0 must stay below 2^C0_BITS so that the folded sums fit in a long.
+	 * */
+	static final int C0_BITS = 20;
+	
+	/**
+	 * 2^(32*len) - P - 2^32.
+	 * */
+	final long c0;
+	
+	PseudoMersenneField(BigInteger P) {
+		super(P, BigInteger.ONE);
+		if(!supports(P))
+			throw new java.lang.RuntimeException("Invalid prime for pseudo mersenne reduction, "+P.toString(16));
+		c0 = BigInteger.ONE.shiftLeft(len<<5).subtract(P).subtract(BigInteger.ONE.shiftLeft(32)).longValue();
+	}
+	
+	static boolean supports(BigInteger P) {
+		int bits = ((P.bitLength()+31)>>5)<<5;
+		BigInteger c0 = BigInteger.ONE.shiftLeft(bits).subtract(P).subtract(BigInteger.ONE.shiftLeft(32));
+		return c0.signum() >= 0 && c0.bitLength() <= C0_BITS;
+	}
+	
+	@Override
+	void mul(int[] r, int[] a, int[] b, long[] t) {
+		mulWide(t, a, b);
+		reduce(r, t);
+	}
+	
+	@Override
+	void sqr(int[] r, int[] a, long[] t) {
+		sqrWide(t, a);
+		reduce(r, t);
+	}
+	
+	/**
+	 * r = t mod P for t in 2*len limbs.
+	 * */
+	void reduce(int[] r, long[] t) {
+		int n = len;
+		//low + high*c0 + high*2^32
+		long c = 0;
+		for(int i = 0; i < n; ++i) {
+			c += t[i]+t[n+i]*c0;
+			if(i > 0)
+				c += t[n+i-1];
+			r[i] = (int) c;
+			c >>>= 32;
+		}
+		c += t[(n<<1)-1];
+		//c*2^(32*len) = c*c0 + c*2^32
+		long h = c;
+		c = (r[0]&M)+h*c0;
+		r[0] = (int) c;
+		c >>>= 32;
+		c += (r[1]&M)+h;
+		r[1] = (int) c;
+		c >>>= 32;
+		for(int i = 2; i < n && c != 0; ++i) {
+			c += r[i]&M;
+			r[i] = (int) c;
+			c >>>= 32;
+		}
+		if(c != 0) {
+			//the sum wrapped, r is now small and adding 2^32 + c0 once more cannot wrap again
+			c = (r[0]&M)+c0;
+			r[0] = (int) c;
+			c >>>= 32;
+			c += (r[1]&M)+1;
+			r[1] = (int) c;
+			c >>>= 32;
+			for(int i = 2; i < n && c != 0; ++i) {
+				c += r[i]&M;
+				r[i] = (int) c;
+				c >>>= 32;
+			}
+		}
+		if(geq(r, p))
+			subP(r);
+	}
+}
@@ -0,0 +1,82 @@
+package archer.algorithm.ecdsa;
+
+import java.math.BigInteger;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+/**
+ * Public key decoded and checked once, with the odd multiples verify needs, see Ecdsa.publicKeyHandle. 
+ * Immutable and safe to share between threads.
+ * */
+public final class PublicKeyHandle {
+	final Curve curve;
+	final BigInteger x;
+	final BigInteger y;
+	
+	/**
+	 * Point of the key and its 2^(width-2) first odd multiples, all with z = 1.
+	 * */
+	final int[][] point;
+	final int[][][] odd;
+	final int width;
+	
+	PublicKeyHandle(Ecdsa ecdsa, BigInteger x, BigInteger y) {
+		this.curve = ecdsa.curve;
+		this.x = x;
+		this.y = y;
+		this.point = ecdsa.toPoint(x, y);
+		this.width = ecdsa.window;
+		Field.Scratch s = ecdsa.F.scratch();
+		this.odd = ecdsa.oddMultiples(point, 1<<(width-2), s);
+		ecdsa.normalizeAll(odd, s);
+	}
+	
+	public Curve getCurve() {
+		return curve;
+	}
+	
+	/**
+	 * @return the public key in format.
+	 * */
+	public byte[] getEncoded(KeyFormat format) {
+		return Ecdsa.encodePublicKey(x, y, format);
+	}
+	
+	@Override
+	public boolean equals(Object o) {
+		if(this == o)
+			return true;
+		if(!(o instanceof PublicKeyHandle))
+			return false;
+		PublicKeyHandle k = (PublicKeyHandle) o;
+		return curve == k.curve && x.equals(k.x) && y.equals(k.y);
+	}
+	
+	@Override
+	public int hashCode() {
+		return (curve.hashCode()*31+x.hashCode())*31+y.hashCode();
+	}
+}
@@ -0,0 +1,166 @@
+package archer.algorithm.ecdsa;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+public final class SignatureCache {
+	/**
+	 * Estimated heap bytes of one cached entry, the map entry and its key.
+	 * */
+	static final int ENTRY_BYTES = 128;
+	
+	/**
+	 * Tags keeping the string and the compact form of one signature apart.
+	 * */
+	static final byte TAG_HEX = 1;
+	static final byte TAG_COMPACT = 2;
+	
+	final Ecdsa ecdsa;
+	private final LruCache<Key, Boolean> cache;
+	
+	/**
+	 * Digest which has already absorbed the secret salt, cloned for every lookup.
+	 * */
+	private final MessageDigest salted;
+	
+	/**
+	 * @param ecdsa instance verifying the signatures which are not cached.
+	 * @param maxBytes memory budget of the cache, it holds maxBytes/ENTRY_BYTES triples and evicts 
+	 * the least recently used one first.
+	 * */
+	public SignatureCache(Ecdsa ecdsa, long maxBytes) {
+		long n = maxBytes/ENTRY_BYTES;
+		if(n < 1 || n > Integer.MAX_VALUE)
+			throw new java.lang.RuntimeException("Invalid memory budget, "+maxBytes);
+		this.ecdsa = ecdsa;
+		cache = new LruCache<>((int) n);
+		byte[] salt = new byte[32];
+		new SecureRandom().nextBytes(salt);
+		try {
+			salted = MessageDigest.getInstance("sha-256");
+		} catch(NoSuchAlgorithmException e) {
+			throw new java.lang.RuntimeException(e);
+		}
+		salted.update(salt);
+	}
+	
+	/**
+	 * Same as Ecdsa.verify(byte[], byte[], String), valid triples are remembered and return at once when seen again.
+	 * */
+	public boolean verify(byte[] pubKeyBytes, byte[] hashBytes, String sig) {
+		MessageDigest md = digest();
+		md.update(TAG_HEX);
+		update(md, ByteBuffer.wrap(pubKeyBytes));
+		update(md, ByteBuffer.wrap(hashBytes));
+		update(md, ByteBuffer.wrap(sig.getBytes(StandardCharsets.US_ASCII)));
+		Key k = new Key(md.digest());
+		if(cache.get(k) != null)
+			return true;
+		boolean ok = ecdsa.verify(pubKeyBytes, hashBytes, sig);
+		if(ok)
+			cache.put(k, Boolean.TRUE);
+		return ok;
+	}
+	
+	/**
+	 * Same as Ecdsa.verify(ByteBuffer, ByteBuffer, ByteBuffer), valid triples are remembered and return at once when seen again.
+	 * */
+	public boolean verify(ByteBuffer pubKey, ByteBuffer hash, ByteBuffer sig) {
+		MessageDigest md = digest();
+		md.update(TAG_COMPACT);
+		update(md, pubKey);
+		update(md, hash);
+		update(md, sig);
+		Key k = new Key(md.digest());
+		if(cache.get(k) != null)
+			return true;
+		boolean ok = ecdsa.verify(pubKey, hash, sig);
+		if(ok)
+			cache.put(k, Boolean.TRUE);
+		return ok;
+	}
+	
+	/**
+	 * @return counters of the cache.
+	 * */
+	public CacheStats stats() {
+		return cache.stats();
+	}
+	
+	public void clear() {
+		cache.clear();
+	}
+	
+	private MessageDigest digest() {
+		try {
+			return (MessageDigest) salted.clone();
+		} catch(CloneNotSupportedException e) {
+			throw new java.lang.RuntimeException(e);
+		}
+	}
+	
+	/**
+	 * Length prefixed so that moving bytes between the parts changes the key.
+	 * */
+	private static void update(MessageDigest md, ByteBuffer b) {
+		int n = b.remaining();
+		md.update(new byte[] {(byte) (n>>>24), (byte) (n>>>16), (byte) (n>>>8), (byte) n});
+		md.update(b.duplicate());
+	}
+	
+	/**
+	 * 256 bits salted digest of a triple.
+	 * */
+	static final class Key {
+		final long a, b, c, d;
+		
+		Key(byte[] digest) {
+			ByteBuffer bb = ByteBuffer.wrap(digest);
+			a = bb.getLong();
+			b = bb.getLong();
+			c = bb.getLong();
+			d = bb.getLong();
+		}
+		
+		@Override
+		public int hashCode() {
+			return (int) (a^(a>>>32));
+		}
+		
+		@Override
+		public boolean equals(Object o) {
+			if(!(o instanceof Key))
+				return false;
+			Key k = (Key) o;
+			return a == k.a && b == k.b && c == k.c && d == k.d;
+		}
+	}
+}
@@ -0,0 +1,223 @@
+package archer.algorithm.ecdsa;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+public class SignatureUtil {
+	
+	/**
+	 * Bytes of one coordinate or one scalar, numbers of every curve are left padded to it.
+	 * */
+	public static final int SCALAR_LENGTH = 32;
+	
+	/**
+	 * Bytes of a compact signature, r and s in 32 bytes each followed by the recovery byte v.
+	 * */
+	public static final int COMPACT_LENGTH = 65;
+	
+	/**
+	 * Bytes of the longest DER signature, SEQUENCE of two INTEGER with 33 bytes each.
+	 * */
+	public static final int DER_MAX_LENGTH = 72;
+	
+	static final byte SEC1_UNCOMPRESSED = 0x04;
+	static final byte SEC1_EVEN = 0x02;
+	static final byte SEC1_ODD = 0x03;
+	static final byte DER_SEQUENCE = 0x30;
+	static final byte DER_INTEGER = 0x02;
+	
+	/**
+	 * @param sig compact signature, 64 or 65 bytes.
+	 * 
+	 * @return DER encoded signature, the recovery byte is dropped.
+	 * */
+	public static byte[] compactToDer(byte[] sig) {
+		BigInteger[] rs = getCompact(ByteBuffer.wrap(sig));
+		byte[] out = new byte[DER_MAX_LENGTH];
+		int n = putDer(ByteBuffer.wrap(out), 0, rs[0], rs[1]);
+		return n == out.length?out:java.util.Arrays.copyOf(out, n);
+	}
+	
+	/**
+	 * @param der DER encoded signature.
+	 * 
+	 * @return 64 bytes r and s, DER has no recovery byte.
+	 * */
+	public static byte[] derToCompact(byte[] der) {
+		BigInteger[] rs = getDer(ByteBuffer.wrap(der));
+		byte[] out = new byte[SCALAR_LENGTH<<1];
+		ByteBuffer b = ByteBuffer.wrap(out);
+		putUnsigned(b, 0, rs[0], SCALAR_LENGTH);
+		putUnsigned(b, SCALAR_LENGTH, rs[1], SCALAR_LENGTH);
+		return out;
+	}
+	
+	/**
+	 * Buffers passed in are read between their position and limit, their position is not changed.
+	 * 
+	 * @return big endian unsigned number at off, heap buffers are read without copying.
+	 * */
+	static BigInteger getUnsigned(ByteBuffer b, int off, int len) {
+		if(b.hasArray())
+			return new BigInteger(1, b.array(), b.arrayOffset()+off, len);
+		byte[] bs = new byte[len];
+		for(int i = 0; i < len; ++i)
+			bs[i] = b.get(off+i);
+		return new BigInteger(1, bs);
+	}
+	
+	/**
+	 * Write n big endian, left padded with zero to len bytes at off.
+	 * */
+	static void putUnsigned(ByteBuffer b, int off, BigInteger n, int len) {
+		if(n.signum() < 0 || n.bitLength() > (len<<3))
+			throw new java.lang.RuntimeException("Number does not fit in "+len+" bytes.");
+		byte[] bs = n.toByteArray();
+		int skip = bs.length > len?bs.length-len:0, pad = len-bs.length+skip;
+		for(int i = 0; i < pad; ++i)
+			b.put(off+i, (byte) 0);
+		for(int i = skip; i < bs.length; ++i)
+			b.put(off+pad+i-skip, bs[i]);
+	}
+	
+	/**
+	 * @return copy of the remaining bytes, a heap buffer covering its whole array is returned as it is.
+	 * */
+	static byte[] remaining(ByteBuffer b) {
+		if(b.hasArray() && b.arrayOffset() == 0 && b.position() == 0 && b.remaining() == b.array().length)
+			return b.array();
+		byte[] bs = new byte[b.remaining()];
+		for(int i = 0; i < bs.length; ++i)
+			bs[i] = b.get(b.position()+i);
+		return bs;
+	}
+	
+	/**
+	 * @param b compact signature, 64 bytes r and s or 65 bytes r, s and v.
+	 * 
+	 * @return {r, s, v}, v is null if the signature has no recovery byte.
+	 * */
+	static BigInteger[] getCompact(ByteBuffer b) {
+		int off = b.position(), len = b.remaining();
+		if(len != COMPACT_LENGTH && len != COMPACT_LENGTH-1)
+			throw new java.lang.RuntimeException("Invalid signature length, "+len);
+		return new BigInteger[] {
+				getUnsigned(b, off, SCALAR_LENGTH),
+				getUnsigned(b, off+SCALAR_LENGTH, SCALAR_LENGTH),
+				len == COMPACT_LENGTH?BigInteger.valueOf(b.get(off+(SCALAR_LENGTH<<1))&0xff):null
+		};
+	}
+	
+	/**
+	 * @return bytes written, always COMPACT_LENGTH.
+	 * */
+	static int putCompact(ByteBuffer b, int off, BigInteger r, BigInteger s, BigInteger v) {
+		putUnsigned(b, off, r, SCALAR_LENGTH);
+		putUnsigned(b, off+SCALAR_LENGTH, s, SCALAR_LENGTH);
+		b.put(off+(SCALAR_LENGTH<<1), v.byteValue());
+		return COMPACT_LENGTH;
+	}
+	
+	/**
+	 * Strict DER, SEQUENCE of two positive INTEGER in minimal encoding with nothing after it.
+	 * 
+	 * @return {r, s}.
+	 * */
+	static BigInteger[] getDer(ByteBuffer b) {
+		int off = b.position(), end = b.limit();
+		if(end-off < 8 || b.get(off) != DER_SEQUENCE || (b.get(off+1)&0xff) != end-off-2)
+			throw new java.lang.RuntimeException("Invalid DER signature.");
+		BigInteger[] rs = new BigInteger[2];
+		off += 2;
+		for(int i = 0; i < 2; ++i) {
+			if(end-off < 3 || b.get(off) != DER_INTEGER)
+				throw new java.lang.RuntimeException("Invalid DER signature.");
+			int len = b.get(off+1)&0xff;
+			off += 2;
+			if(len == 0 || len > SCALAR_LENGTH+1 || len > end-off)
+				throw new java.lang.RuntimeException("Invalid DER signature.");
+			byte first = b.get(off);
+			//negative, or a zero byte which is not needed for the sign
+			if(first < 0 || (first == 0 && (len == 1 || b.get(off+1) >= 0)))
+				throw new java.lang.RuntimeException("Invalid DER signature.");
+			rs[i] = getUnsigned(b, off, len);
+			off += len;
+		}
+		if(off != end)
+			throw new java.lang.RuntimeException("Invalid DER signature.");
+		return rs;
+	}
+	
+	/**
+	 * @return bytes written, at most DER_MAX_LENGTH.
+	 * */
+	static int putDer(ByteBuffer b, int off, BigInteger r, BigInteger s) {
+		byte[] rBs = r.toByteArray(), sBs = s.toByteArray();
+		int len = rBs.length+sBs.length+4;
+		b.put(off, DER_SEQUENCE);
+		b.put(off+1, (byte) len);
+		int i = off+2;
+		for(byte[] bs: new byte[][] {rBs, sBs}) {
+			b.put(i++, DER_INTEGER);
+			b.put(i++, (byte) bs.length);
+			for(byte x: bs)
+				b.put(i++, x);
+		}
+		return len+2;
+	}
+	
+	/**
+	 * @param b raw 64 bytes or SEC1 uncompressed 65 bytes public key, compressed keys need the curve, see Ecdsa.readPublicKey.
+	 * 
+	 * @return {x, y}.
+	 * */
+	static BigInteger[] getPublicKey(ByteBuffer b) {
+		int off = b.position(), len = b.remaining();
+		if(len == KeyFormat.UNCOMPRESSED.length && b.get(off) == SEC1_UNCOMPRESSED)
+			++off;
+		else if(len != KeyFormat.RAW.length)
+			throw new java.lang.RuntimeException("Invalid public key.");
+		return new BigInteger[] {getUnsigned(b, off, SCALAR_LENGTH), getUnsigned(b, off+SCALAR_LENGTH, SCALAR_LENGTH)};
+	}
+	
+	/**
+	 * @return bytes written, format.getLength().
+	 * */
+	static int putPublicKey(ByteBuffer b, int off, BigInteger x, BigInteger y, KeyFormat format) {
+		if(format == KeyFormat.COMPRESSED) {
+			b.put(off, y.testBit(0)?SEC1_ODD:SEC1_EVEN);
+			putUnsigned(b, off+1, x, SCALAR_LENGTH);
+			return format.length;
+		}
+		if(format == KeyFormat.UNCOMPRESSED)
+			b.put(off++, SEC1_UNCOMPRESSED);
+		putUnsigned(b, off, x, SCALAR_LENGTH);
+		putUnsigned(b, off+SCALAR_LENGTH, y, SCALAR_LENGTH);
+		return format.length;
+	}
+}
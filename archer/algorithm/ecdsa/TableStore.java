@@ -0,0 +1,421 @@
+package archer.algorithm.ecdsa;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+public final class TableStore {
+	/**
+	 * Header: "ECDT", the version of the layout and the number of sections. 
+	 * Directory: ordinal of the curve, offset, bytes and CRC32C of its section, for every section. 
+	 * Sections follow, each one is checked and parsed only when its curve needs it.
+	 * */
+	static final int MAGIC = 0x45434454;
+	static final int VERSION = 1;
+	static final int HEADER = 12;
+	static final int ENTRY = 24;
+	
+	/**
+	 * System property naming a file which is mapped before the first table is built.
+	 * */
+	public static final String PROPERTY = "archer.ecdsa.tables";
+	
+	private static boolean autoloaded;
+	
+	/**
+	 * Sections of the file named by PROPERTY by curve ordinal, null when absent or invalid.
+	 * */
+	private static Section[] mapped;
+	
+	/**
+	 * Mapped bytes of a section and the checksum the directory gives for them.
+	 * */
+	static final class Section {
+		final ByteBuffer body;
+		final long crc;
+		
+		Section(ByteBuffer body, long crc) {
+			this.body = body;
+			this.crc = crc;
+		}
+	}
+	
+	private TableStore() {
+	}
+	
+	/**
+	 * Build the tables of curves and write them to file, through a temporary file which replaces it at the end.
+	 * 
+	 * @param file destination.
+	 * @param curves curves to save, every curve if none is given.
+	 * */
+	public static void save(Path file, Curve ...curves) throws IOException {
+		if(curves.length == 0)
+			curves = Curve.values();
+		FixedBaseTable[] tables = new FixedBaseTable[curves.length];
+		Endomorphism[] es = new Endomorphism[curves.length];
+		for(int i = 0; i < curves.length; ++i) {
+			tables[i] = curves[i].baseTable();
+			es[i] = curves[i].endomorphism();
+		}
+		save(file, curves, tables, es);
+	}
+	
+	/**
+	 * Write the given table and endomorphism of every curve.
+	 * */
+	static void save(Path file, Curve[] curves, FixedBaseTable[] tables, Endomorphism[] es) throws IOException {
+		ByteBuffer[] sections = new ByteBuffer[curves.length];
+		ByteBuffer dir = ByteBuffer.allocate(HEADER+curves.length*ENTRY);
+		dir.putInt(MAGIC).putInt(VERSION).putInt(curves.length);
+		long offset = dir.capacity();
+		for(int i = 0; i < curves.length; ++i) {
+			sections[i] = ByteBuffer.allocate(sectionSize(curves[i], tables[i], es[i]));
+			putSection(sections[i], curves[i], tables[i], es[i]);
+			sections[i].flip();
+			CRC32C crc = new CRC32C();
+			crc.update(sections[i].duplicate());
+			dir.putInt(curves[i].ordinal()).putLong(offset).putInt(sections[i].remaining()).putLong(crc.getValue());
+			offset += sections[i].remaining();
+		}
+		dir.flip();
+		
+		Path tmp = file.resolveSibling(file.getFileName()+".tmp");
+		try(FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, 
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while(dir.hasRemaining())
+				ch.write(dir);
+			for(ByteBuffer b: sections)
+				while(b.hasRemaining())
+					ch.write(b);
+			ch.force(true);
+		}
+		Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+	
+	/**
+	 * Map file and install its tables in every curve whose tables are not built yet. A missing file, 
+	 * another version, a wrong checksum or tables of another field representation load nothing for 
+	 * the curves concerned, they build their tables on first use as before.
+	 * 
+	 * @return number of curves which took a table from file.
+	 * */
+	public static int load(Path file) {
+		Section[] sections = map(file);
+		int installed = 0;
+		for(Curve c: Curve.values())
+			if(sections[c.ordinal()] != null && install(c, sections[c.ordinal()]))
+				++installed;
+		return installed;
+	}
+	
+	/**
+	 * Map the file named by PROPERTY once and install the tables of curve from it, 
+	 * nothing happens if the property is not set.
+	 * */
+	static void autoload(Curve curve) {
+		Section section;
+		synchronized(TableStore.class) {
+			if(!autoloaded) {
+				String path = System.getProperty(PROPERTY);
+				if(path != null && !path.isEmpty())
+					mapped = map(Paths.get(path));
+				autoloaded = true;
+			}
+			if(mapped == null || mapped[curve.ordinal()] == null)
+				return;
+			//a section is tried once
+			section = mapped[curve.ordinal()];
+			mapped[curve.ordinal()] = null;
+		}
+		install(curve, section);
+	}
+	
+	/**
+	 * @return sections by curve ordinal, every entry is null if the file cannot be used.
+	 * */
+	static Section[] map(Path file) {
+		Section[] sections = new Section[Curve.values().length];
+		try(FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = ch.size();
+			if(size < HEADER || size > Integer.MAX_VALUE)
+				return sections;
+			MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			if(map.getInt() != MAGIC || map.getInt() != VERSION)
+				return sections;
+			int count = map.getInt();
+			if(count < 0 || count > sections.length || size < HEADER+(long) count*ENTRY)
+				return sections;
+			for(int i = 0; i < count; ++i) {
+				int ordinal = map.getInt();
+				long offset = map.getLong();
+				int len = map.getInt();
+				long crc = map.getLong();
+				if(ordinal < 0 || ordinal >= sections.length || offset < HEADER || len < 0 || offset+len > size)
+					return new Section[sections.length];
+				ByteBuffer b = map.duplicate();
+				b.position((int) offset).limit((int) offset+len);
+				sections[ordinal] = new Section(b.slice(), crc);
+			}
+		} catch(IOException | RuntimeException e) {
+			return new Section[sections.length];
+		}
+		return sections;
+	}
+	
+	/**
+	 * @return if the section was valid for the curve and its table was installed.
+	 * */
+	private static boolean install(Curve c, Section section) {
+		try {
+			ByteBuffer b = section.body.duplicate();
+			CRC32C crc = new CRC32C();
+			crc.update(b.duplicate());
+			if(crc.getValue() != section.crc || b.getInt() != c.ordinal())
+				return false;
+			Ecdsa ecdsa = Ecdsa.from(c);
+			Endomorphism e = getEndomorphism(b, ecdsa);
+			if((e != null) != Endomorphism.supports(ecdsa))
+				return false;
+			FixedBaseTable t = getSection(b, c);
+			return t != null && valid(ecdsa, t, e) && c.install(t, e);
+		} catch(RuntimeException ex) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Layout of a section: ordinal, endomorphism flag and constants, field class and P, 
+	 * then W, windows, odd and oddEndo counts and the x and y limbs of every point.
+	 * */
+	private static int sectionSize(Curve c, FixedBaseTable t, Endomorphism e) {
+		int size = 8;
+		if(e != null)
+			for(BigInteger n: new BigInteger[] {e.beta, e.lambda, e.a1, e.b1, e.a2, e.b2})
+				size += 4+n.toByteArray().length;
+		size += 4+c.field.getClass().getName().length()+4+c.P.toByteArray().length;
+		int points = t.windows*FixedBaseTable.SIZE+t.odd.length+(t.oddEndo == null?0:t.oddEndo.length);
+		return size+16+points*2*c.field.len*4;
+	}
+	
+	private static void putSection(ByteBuffer b, Curve c, FixedBaseTable t, Endomorphism e) {
+		b.putInt(c.ordinal());
+		b.putInt(e == null?0:1);
+		if(e != null)
+			for(BigInteger n: new BigInteger[] {e.beta, e.lambda, e.a1, e.b1, e.a2, e.b2})
+				putBytes(b, n.toByteArray());
+		putBytes(b, c.field.getClass().getName().getBytes(java.nio.charset.StandardCharsets.US_ASCII));
+		putBytes(b, c.P.toByteArray());
+		b.putInt(FixedBaseTable.W).putInt(t.windows).putInt(t.odd.length).putInt(t.oddEndo == null?0:t.oddEndo.length);
+		for(int[][][] w: t.points)
+			for(int[][] p: w)
+				putPoint(b, p);
+		for(int[][] p: t.odd)
+			putPoint(b, p);
+		if(t.oddEndo != null)
+			for(int[][] p: t.oddEndo)
+				putPoint(b, p);
+	}
+	
+	private static Endomorphism getEndomorphism(ByteBuffer b, Ecdsa ecdsa) {
+		if(b.getInt() == 0)
+			return null;
+		BigInteger[] n = new BigInteger[6];
+		for(int i = 0; i < n.length; ++i)
+			n[i] = new BigInteger(getBytes(b));
+		return new Endomorphism(ecdsa, n[0], n[1], n[2], n[3], n[4], n[5]);
+	}
+	
+	/**
+	 * @return table of the section, null if it was saved for another field or table layout.
+	 * */
+	private static FixedBaseTable getSection(ByteBuffer b, Curve c) {
+		String field = new String(getBytes(b), java.nio.charset.StandardCharsets.US_ASCII);
+		BigInteger P = new BigInteger(getBytes(b));
+		int w = b.getInt(), windows = b.getInt(), odd = b.getInt(), oddEndo = b.getInt();
+		if(!field.equals(c.field.getClass().getName()) || !P.equals(c.P) || w != FixedBaseTable.W
+				|| windows != (c.N.bitLength()+w-1)/w || odd != 1<<(FixedBaseTable.WNAF-2) || (oddEndo != 0 && oddEndo != odd))
+			return null;
+		Field F = c.field;
+		int[][][][] points = new int[windows][FixedBaseTable.SIZE][][];
+		for(int i = 0; i < windows; ++i)
+			for(int d = 0; d < FixedBaseTable.SIZE; ++d)
+				points[i][d] = getPoint(b, F);
+		int[][][] o = new int[odd][][];
+		for(int i = 0; i < odd; ++i)
+			o[i] = getPoint(b, F);
+		int[][][] oe = oddEndo == 0?null:new int[oddEndo][][];
+		for(int i = 0; i < oddEndo; ++i)
+			oe[i] = getPoint(b, F);
+		return new FixedBaseTable(points, o, oe);
+	}
+	
+	/**
+	 * The checksum only guards against damage, a file written by another build or by hand must also hold 
+	 * the right points. Every point has to be on the curve with coordinates below P, the windows have to start 
+	 * at G and each entry has to be the sum of the one before and the first of its window, the first entry of 
+	 * a window being the last plus the first of the window before. odd[j] has to be odd[j-1]+2G and oddEndo[j] 
+	 * the endomorphism of odd[j]. Sums are checked as collinear points, two multiplications each.
+	 * 
+	 * @return if t is the table of the curve of ecdsa.
+	 * */
+	static boolean valid(Ecdsa ecdsa, FixedBaseTable t, Endomorphism e) {
+		Field F = ecdsa.F;
+		if((e == null) != (t.oddEndo == null))
+			return false;
+		Field.Scratch s = F.scratch();
+		int[] b = F.fromBigInt(ecdsa.B);
+		for(int[][][] w: t.points)
+			for(int[][] p: w)
+				if(!onCurve(ecdsa, p, b, s))
+					return false;
+		for(int[][] p: t.odd)
+			if(!onCurve(ecdsa, p, b, s))
+				return false;
+		for(int j = 0; t.oddEndo != null && j < t.oddEndo.length; ++j) {
+			int[] x = s.v[2];
+			F.mul(x, t.odd[j][0], e.fieldBeta, s.t);
+			if(!F.eq(x, t.oddEndo[j][0]) || !F.eq(t.odd[j][1], t.oddEndo[j][1]))
+				return false;
+		}
+		
+		int[][] g = ecdsa.toPoint(ecdsa.Gx, ecdsa.Gy);
+		if(!F.eq(t.points[0][0][0], g[0]) || !F.eq(t.points[0][0][1], g[1])
+				|| !F.eq(t.odd[0][0], g[0]) || !F.eq(t.odd[0][1], g[1]))
+			return false;
+		int[][] p = ecdsa.newPoint();
+		for(int i = 0; i < t.windows; ++i) {
+			int[][][] w = t.points[i];
+			if(i > 0 && !sum(F, t.points[i-1][FixedBaseTable.SIZE-1], t.points[i-1][0], w[0], s))
+				return false;
+			//2*w[0] is a doubling, there is no line through two points to check
+			ecdsa.fastDouble(p, w[0], s);
+			if(!equal(F, p, w[1], s))
+				return false;
+			for(int d = 2; d < FixedBaseTable.SIZE; ++d)
+				if(!sum(F, w[d-1], w[0], w[d], s))
+					return false;
+		}
+		for(int j = 1; j < t.odd.length; ++j)
+			if(!sum(F, t.odd[j-1], t.points[0][1], t.odd[j], s))
+				return false;
+		return true;
+	}
+	
+	/**
+	 * Points a, b and -c of the curve on one line add up to infinity, so c = a+b. 
+	 * The x coordinates must differ, the line would be a tangent or vertical otherwise.
+	 * 
+	 * @return if the affine points satisfy c = a+b, every point being on the curve.
+	 * */
+	private static boolean sum(Field F, int[][] a, int[][] b, int[][] c, Field.Scratch s) {
+		if(F.eq(a[0], b[0]) || F.eq(a[0], c[0]) || F.eq(b[0], c[0]))
+			return false;
+		//(yb-ya)*(xc-xa) = (-yc-ya)*(xb-xa)
+		int[] l = s.v[0], r = s.v[1], u = s.v[2];
+		F.sub(l, b[1], a[1]);
+		F.sub(u, c[0], a[0]);
+		F.mul(l, l, u, s.t);
+		F.add(r, c[1], a[1]);
+		F.neg(r, r);
+		F.sub(u, b[0], a[0]);
+		F.mul(r, r, u, s.t);
+		return F.eq(l, r);
+	}
+	
+	/**
+	 * @return if the affine point p has coordinates below P and y^2 = x^3 + a*x + b.
+	 * */
+	private static boolean onCurve(Ecdsa ecdsa, int[][] p, int[] b, Field.Scratch s) {
+		Field F = ecdsa.F;
+		if(F.geq(p[0], F.p) || F.geq(p[1], F.p))
+			return false;
+		int[] l = s.v[0], r = s.v[1];
+		F.sqr(l, p[1], s.t);
+		F.sqr(r, p[0], s.t);
+		F.add(r, r, ecdsa.fieldA);
+		F.mul(r, r, p[0], s.t);
+		F.add(r, r, b);
+		return F.eq(l, r);
+	}
+	
+	/**
+	 * @param p point in jacobian coordinates.
+	 * @param q affine point with z = 1.
+	 * 
+	 * @return if p and q are the same point, X = x*Z^2 and Y = y*Z^3.
+	 * */
+	private static boolean equal(Field F, int[][] p, int[][] q, Field.Scratch s) {
+		if(F.isZero(p[2]))
+			return false;
+		int[] z2 = s.v[0], c = s.v[1];
+		F.sqr(z2, p[2], s.t);
+		F.mul(c, q[0], z2, s.t);
+		if(!F.eq(c, p[0]))
+			return false;
+		F.mul(z2, z2, p[2], s.t);
+		F.mul(c, q[1], z2, s.t);
+		return F.eq(c, p[1]);
+	}
+	
+	private static void putPoint(ByteBuffer b, int[][] p) {
+		for(int i = 0; i < 2; ++i)
+			for(int x: p[i])
+				b.putInt(x);
+	}
+	
+	private static int[][] getPoint(ByteBuffer b, Field F) {
+		int[][] p = {new int[F.len], new int[F.len], F.one.clone()};
+		for(int i = 0; i < 2; ++i)
+			for(int j = 0; j < F.len; ++j)
+				p[i][j] = b.getInt();
+		return p;
+	}
+	
+	private static void putBytes(ByteBuffer b, byte[] bs) {
+		b.putInt(bs.length);
+		b.put(bs);
+	}
+	
+	private static byte[] getBytes(ByteBuffer b) {
+		int n = b.getInt();
+		if(n < 0 || n > b.remaining())
+			throw new java.lang.RuntimeException("Invalid table file.");
+		byte[] bs = new byte[n];
+		b.get(bs);
+		return bs;
+	}
+}
@@ -0,0 +1,226 @@
+package archer.algorithm.ecdsa;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+public final class VerifyService implements AutoCloseable {
+	final Ecdsa ecdsa;
+	final int batchSize;
+	final long maxDelayNanos;
+	final Executor executor;
+	
+	/**
+	 * Permits for batches handed to the executor and not finished yet, the dispatcher waits for one 
+	 * before it takes more requests, so a slow executor fills the queue and callers feel it.
+	 * */
+	private final Semaphore inFlight;
+	private final BlockingQueue<Request> queue;
+	private final Thread dispatcher;
+	private volatile boolean closed;
+	
+	/**
+	 * Batches run on ForkJoinPool.commonPool(), as many at once as it has threads.
+	 * */
+	public VerifyService(Ecdsa ecdsa, int batchSize, long maxDelay, TimeUnit unit, int queueCapacity) {
+		this(ecdsa, batchSize, maxDelay, unit, queueCapacity, ForkJoinPool.commonPool(), 
+				ForkJoinPool.getCommonPoolParallelism());
+	}
+	
+	/**
+	 * As many batches at once as there are processors.
+	 * */
+	public VerifyService(Ecdsa ecdsa, int batchSize, long maxDelay, TimeUnit unit, int queueCapacity, Executor executor) {
+		this(ecdsa, batchSize, maxDelay, unit, queueCapacity, executor, Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * @param ecdsa instance verifying the batches.
+	 * @param batchSize a batch is flushed once it holds this many requests.
+	 * @param maxDelay a batch is flushed at the latest this long after its first request arrived.
+	 * @param unit unit of maxDelay.
+	 * @param queueCapacity most requests waiting for a batch, submit blocks and offer fails beyond it.
+	 * @param executor runs the batches, several of them may run at once.
+	 * @param maxInFlight most batches given to executor and not finished, further requests wait in the queue.
+	 * */
+	public VerifyService(Ecdsa ecdsa, int batchSize, long maxDelay, TimeUnit unit, int queueCapacity, Executor executor, 
+			int maxInFlight) {
+		if(batchSize < 1 || maxDelay < 0 || queueCapacity < 1 || maxInFlight < 1)
+			throw new java.lang.RuntimeException("Invalid verify service settings.");
+		this.ecdsa = ecdsa;
+		this.batchSize = batchSize;
+		this.maxDelayNanos = unit.toNanos(maxDelay);
+		this.executor = executor;
+		inFlight = new Semaphore(maxInFlight);
+		queue = new ArrayBlockingQueue<>(queueCapacity);
+		dispatcher = new Thread(this::dispatch, "ecdsa-verify-dispatcher");
+		dispatcher.setDaemon(true);
+		dispatcher.start();
+	}
+	
+	/**
+	 * Queue a verification, waits while the queue is full.
+	 * 
+	 * @return future of the result of Ecdsa.verify, malformed inputs give false, it fails with 
+	 * RejectedExecutionException if the service is closed.
+	 * */
+	public CompletableFuture<Boolean> submit(byte[] pubKeyBytes, byte[] hashBytes, String sig) throws InterruptedException {
+		Request r = new Request(pubKeyBytes, hashBytes, sig);
+		if(closed)
+			return rejected(r);
+		queue.put(r);
+		return enqueued(r);
+	}
+	
+	/**
+	 * Queue a verification without waiting.
+	 * 
+	 * @return future of the result of Ecdsa.verify, it fails with RejectedExecutionException if 
+	 * the queue is full or the service is closed.
+	 * */
+	public CompletableFuture<Boolean> offer(byte[] pubKeyBytes, byte[] hashBytes, String sig) {
+		Request r = new Request(pubKeyBytes, hashBytes, sig);
+		if(closed || !queue.offer(r))
+			return rejected(r);
+		return enqueued(r);
+	}
+	
+	/**
+	 * @return requests waiting for a batch.
+	 * */
+	public int pending() {
+		return queue.size();
+	}
+	
+	/**
+	 * Stop taking requests, the queued ones are still verified.
+	 * */
+	@Override
+	public void close() {
+		closed = true;
+		dispatcher.interrupt();
+	}
+	
+	/**
+	 * A request which raced with close and was not drained by the dispatcher is rejected here.
+	 * */
+	private CompletableFuture<Boolean> enqueued(Request r) {
+		if(closed && queue.remove(r))
+			return rejected(r);
+		return r.future;
+	}
+	
+	private static CompletableFuture<Boolean> rejected(Request r) {
+		r.future.completeExceptionally(new RejectedExecutionException("Verify service is closed or full."));
+		return r.future;
+	}
+	
+	private void dispatch() {
+		boolean stop = false;
+		while(!stop) {
+			List<Request> batch = new ArrayList<>(batchSize);
+			try {
+				batch.add(queue.take());
+				long deadline = System.nanoTime()+maxDelayNanos;
+				while(batch.size() < batchSize) {
+					long left = deadline-System.nanoTime();
+					Request r = left > 0?queue.poll(left, TimeUnit.NANOSECONDS):queue.poll();
+					if(r == null)
+						break;
+					batch.add(r);
+				}
+			} catch(InterruptedException e) {
+				stop = closed;
+			}
+			if(!batch.isEmpty())
+				flush(batch);
+		}
+		
+		List<Request> rest = new ArrayList<>();
+		queue.drainTo(rest);
+		for(int i = 0; i < rest.size(); i += batchSize)
+			flush(rest.subList(i, Math.min(rest.size(), i+batchSize)));
+	}
+	
+	private void flush(List<Request> batch) {
+		Request[] rs = batch.toArray(new Request[0]);
+		//an interrupt from close must not drop the batch, it is seen by the next take
+		inFlight.acquireUninterruptibly();
+		try {
+			executor.execute(() -> run(rs));
+		} catch(RejectedExecutionException e) {
+			inFlight.release();
+			for(Request r: rs)
+				r.future.completeExceptionally(e);
+		}
+	}
+	
+	private void run(Request[] rs) {
+		try {
+			int n = rs.length;
+			byte[][] pubs = new byte[n][], hashes = new byte[n][];
+			String[] sigs = new String[n];
+			for(int i = 0; i < n; ++i) {
+				pubs[i] = rs[i].pubKeyBytes;
+				hashes[i] = rs[i].hashBytes;
+				sigs[i] = rs[i].sig;
+			}
+			boolean[] ok = ecdsa.verifyBatch(pubs, hashes, sigs);
+			for(int i = 0; i < n; ++i)
+				rs[i].future.complete(ok[i]);
+		} catch(Throwable e) {
+			//no caller may be left waiting, errors still reach the thread afterwards
+			for(Request r: rs)
+				r.future.completeExceptionally(e);
+			if(e instanceof Error)
+				throw (Error) e;
+		} finally {
+			inFlight.release();
+		}
+	}
+	
+	static final class Request {
+		final byte[] pubKeyBytes;
+		final byte[] hashBytes;
+		final String sig;
+		final CompletableFuture<Boolean> future = new CompletableFuture<>();
+		
+		Request(byte[] pubKeyBytes, byte[] hashBytes, String sig) {
+			this.pubKeyBytes = pubKeyBytes;
+			this.hashBytes = hashBytes;
+			this.sig = sig;
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package archer.algorithm.ecdsa;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+/**
+ * Bulk apis on the 256 bits curves with and without vector lanes, every fork adds the vector module 
+ * and the vector param sets LaneField.PROPERTY before the curve looks its lanes up. 
+ * The core jar must be built with the vector profile for lanes to exist at all.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class BulkBenchmark {
+	
+	static final int SIZE = 256;
+	
+	@Param({"SECP_256_K1", "SECP_256_R1"})
+	Curve curve;
+	
+	@Param({"true", "false"})
+	String vector;
+	
+	Ecdsa ecdsa;
+	byte[][] privs;
+	byte[][] pubs;
+	byte[][] hashes;
+	String[] sigs;
+	
+	@Setup
+	public void setup() {
+		System.setProperty(LaneField.PROPERTY, vector);
+		ecdsa = Ecdsa.from(curve);
+		SecureRandom random = new SecureRandom();
+		privs = new byte[SIZE][31];
+		hashes = new byte[SIZE][32];
+		sigs = new String[SIZE];
+		for(int i = 0; i < SIZE; ++i) {
+			random.nextBytes(privs[i]);
+			privs[i][0] |= 1;
+			random.nextBytes(hashes[i]);
+			sigs[i] = ecdsa.sign(privs[i], hashes[i]);
+		}
+		pubs = ecdsa.privateKeysToPublicKeys(privs);
+		if(Boolean.parseBoolean(vector) != (curve.laneField() != null))
+			throw new java.lang.RuntimeException("Vector lanes are not available, build the core jar with -Pvector.");
+	}
+	
+	@Benchmark
+	public byte[][] privateKeysToPublicKeys() {
+		return ecdsa.privateKeysToPublicKeys(privs);
+	}
+	
+	@Benchmark
+	public boolean[] verifyBatch() {
+		return ecdsa.verifyBatch(pubs, hashes, sigs);
+	}
+}
@@ -0,0 +1,101 @@
+package archer.algorithm.ecdsa;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+	
+	/**
+	 * Cost of Metrics on sign and verify, it should stay within noise of the disabled run.
+	 * */
+	@Param({"false", "true"})
+	boolean enabled;
+	
+	@Param({"SECP_256_K1", "SECP_256_R1"})
+	Curve curve;
+	
+	Ecdsa ecdsa;
+	byte[] priv;
+	byte[] pub;
+	byte[] hash;
+	String sig;
+	
+	@Setup
+	public void setup() {
+		ecdsa = Ecdsa.from(curve);
+		SecureRandom random = new SecureRandom();
+		priv = new byte[curve.N.bitLength()/8-1];
+		random.nextBytes(priv);
+		priv[0] |= 1;
+		hash = new byte[32];
+		random.nextBytes(hash);
+		pub = ecdsa.privateKeyToPublicKey(priv);
+		sig = ecdsa.sign(priv, hash);
+		if(!ecdsa.verify(pub, hash, sig))
+			throw new java.lang.RuntimeException("Benchmark setup failed on "+curve);
+		if(enabled)
+			Metrics.enable(null);
+		else
+			Metrics.disable();
+	}
+	
+	@TearDown
+	public void tearDown() {
+		Metrics.disable();
+		Metrics.reset();
+	}
+	
+	@Benchmark
+	public String sign() {
+		return ecdsa.sign(priv, hash);
+	}
+	
+	@Benchmark
+	public boolean verify() {
+		return ecdsa.verify(pub, hash, sig);
+	}
+}
@@ -0,0 +1,117 @@
+package archer.algorithm.ecdsa;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+/**
+ * Point and field operations under the public API, every thread keeps its own temporaries.
+ * */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PointBenchmark {
+	
+	@Param({"SECP_192_K1", "SECP_192_R1", "SECP_224_K1", "SECP_224_R1", "SECP_256_K1", "SECP_256_R1"})
+	Curve curve;
+	
+	Ecdsa ecdsa;
+	Field.Scratch s;
+	BigInteger k;
+	
+	/**
+	 * p and q jacobian with z != 1, a affine, r receives the results.
+	 * */
+	int[][] p, q, a, r;
+	int[] z, zInv;
+	
+	@Setup
+	public void setup() {
+		ecdsa = Ecdsa.from(curve);
+		s = ecdsa.F.scratch();
+		SecureRandom random = new SecureRandom();
+		k = new BigInteger(curve.N.bitLength()-1, random);
+		a = ecdsa.toPoint(curve.Gx, curve.Gy);
+		p = ecdsa.newPoint();
+		q = ecdsa.newPoint();
+		ecdsa.fastDouble(p, a, s);
+		ecdsa.fastAdd(q, p, a, s);
+		r = ecdsa.newPoint();
+		z = p[2].clone();
+		zInv = new int[z.length];
+	}
+	
+	@Benchmark
+	public int[][] fastMultiply() {
+		return ecdsa.fastMultiply(p, k, s);
+	}
+	
+	@Benchmark
+	public int[][] fastAdd() {
+		ecdsa.fastAdd(r, p, q, s);
+		return r;
+	}
+	
+	@Benchmark
+	public int[][] fastAddMixed() {
+		ecdsa.fastAdd(r, p, a, s);
+		return r;
+	}
+	
+	@Benchmark
+	public int[][] fastDouble() {
+		ecdsa.fastDouble(r, p, s);
+		return r;
+	}
+	
+	@Benchmark
+	public BigInteger inv() {
+		return Ecdsa.inv(k, curve.N);
+	}
+	
+	@Benchmark
+	public int[] fieldInv() {
+		ecdsa.F.inv(zInv, z);
+		return zInv;
+	}
+}
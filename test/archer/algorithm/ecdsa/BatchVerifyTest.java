@@ -0,0 +1,141 @@
+package archer.algorithm.ecdsa;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+public class BatchVerifyTest {
+	
+	@Test
+	public void smallBatches() {
+		for(Curve c: Curve.values())
+			for(int n: new int[] {1, Ecdsa.BATCH_MIN-1, Ecdsa.BATCH_MIN, 16})
+				check(c, n, true);
+	}
+	
+	/**
+	 * 2*n points go to the multi multiplication, from PIPPENGER_MIN on it uses buckets.
+	 * */
+	@Test
+	public void pippengerBatches() {
+		for(Curve c: new Curve[] {Curve.SECP_256_K1, Curve.SECP_256_R1})
+			check(c, Ecdsa.PIPPENGER_MIN/2+8, true);
+	}
+	
+	@Test
+	public void allValid() {
+		for(Curve c: Curve.values()) {
+			check(c, 16, false);
+			check(c, Ecdsa.PIPPENGER_MIN/2+8, false);
+		}
+	}
+	
+	/**
+	 * verify ignores the recovery byte, the batch must give the same result when it cannot be parsed.
+	 * */
+	@Test
+	public void unreadableRecoveryByte() {
+		Ecdsa ecdsa = Ecdsa.from(Curve.SECP_256_K1);
+		int n = 8;
+		byte[][] pubs = new byte[n][], hashes = new byte[n][];
+		String[] sigs = new String[n];
+		for(int i = 0; i < n; ++i) {
+			byte[] priv = {(byte) (i+1), 0x5a, 0x33};
+			pubs[i] = ecdsa.privateKeyToPublicKey(priv);
+			hashes[i] = new byte[32];
+			hashes[i][0] = (byte) i;
+			sigs[i] = ecdsa.sign(priv, hashes[i]);
+		}
+		sigs[1] = sigs[1].substring(0, 128)+"zz";
+		sigs[4] = sigs[4].substring(0, 128)+"-g";
+		sigs[6] = sigs[6].substring(0, 64)+sigs[5].substring(64, 128)+"zz";
+		boolean[] out = ecdsa.verifyBatch(pubs, hashes, sigs);
+		for(int i = 0; i < n; ++i)
+			assertEquals(ecdsa.verify(pubs[i], hashes[i], sigs[i]), out[i], "item "+i);
+		assertTrue(out[1] && out[4] && !out[6]);
+	}
+	
+	/**
+	 * Verify a batch of n signatures, every seventh one from the third on has a wrong hash, a changed s, 
+	 * another key or a malformed signature when broken is true.
+	 * */
+	static void check(Curve c, int n, boolean broken) {
+		Ecdsa ecdsa = Ecdsa.from(c);
+		Random random = new Random(31L*c.ordinal()+n);
+		byte[][] privs = new byte[n][], pubs = new byte[n][], hashes = new byte[n][];
+		String[] sigs = new String[n];
+		for(int i = 0; i < n; ++i) {
+			privs[i] = new BigInteger(c.N.bitLength()-8, random).setBit(0).toByteArray();
+			hashes[i] = new byte[32];
+			random.nextBytes(hashes[i]);
+		}
+		byte[][] pubKeys = ecdsa.privateKeysToPublicKeys(privs);
+		boolean[] expected = new boolean[n];
+		for(int i = 0; i < n; ++i) {
+			pubs[i] = pubKeys[i];
+			sigs[i] = ecdsa.sign(privs[i], hashes[i]);
+			expected[i] = true;
+		}
+		for(int i = 2; broken && i < n; i += 7) {
+			int j = (i+1)%n;
+			switch(i/7%4) {
+			case 0:
+				hashes[i] = hashes[j].clone();
+				hashes[i][0] ^= 1;
+				break;
+			case 1:
+				char[] cs = sigs[i].toCharArray();
+				cs[80] = cs[80] == '0'?'1':'0';
+				sigs[i] = new String(cs);
+				break;
+			case 2:
+				pubs[i] = pubKeys[j];
+				break;
+			default:
+				sigs[i] = sigs[i].substring(2);
+			}
+			expected[i] = false;
+		}
+		if(broken && n > 1) {
+			//a bad item first, the combination starts from it with coefficient one
+			hashes[0] = hashes[0].clone();
+			hashes[0][31] ^= 0x80;
+			expected[0] = false;
+		}
+		
+		boolean[] out = ecdsa.verifyBatch(pubs, hashes, sigs);
+		assertArrayEquals(expected, out, c+" "+n);
+		for(int i = 0; i < n; ++i)
+			assertEquals(expected[i], ecdsa.verifyOne(pubs[i], hashes[i], sigs[i]), c+" "+n+" "+i);
+	}
+}
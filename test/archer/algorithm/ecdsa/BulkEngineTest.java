@@ -0,0 +1,115 @@
+package archer.algorithm.ecdsa;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+public class BulkEngineTest {
+	
+	/**
+	 * More than one verify chunk and many sign chunks, the last ones partial.
+	 * */
+	static final int N = BulkEngine.VERIFY_CHUNK+BulkEngine.SIGN_CHUNK+7;
+	
+	@Test
+	public void resultsMatchSequentialCalls() {
+		Ecdsa ecdsa = Ecdsa.from(Curve.SECP_256_K1).withDeterministicNonces();
+		Random rnd = new Random(17);
+		byte[][] privs = new byte[N][], hashes = new byte[N][], pubs = new byte[N][];
+		for(int i = 0; i < N; ++i) {
+			privs[i] = new byte[] {(byte) (i%13+1), (byte) i};
+			hashes[i] = new byte[32];
+			rnd.nextBytes(hashes[i]);
+			pubs[i] = ecdsa.privateKeyToPublicKey(privs[i]);
+		}
+		
+		try(BulkEngine own = new BulkEngine(ecdsa, 3)) {
+			for(BulkEngine engine: new BulkEngine[] {own, new BulkEngine(ecdsa, ForkJoinPool.commonPool())}) {
+				String[] sigs = engine.signAll(privs, hashes);
+				for(int i = 0; i < N; ++i)
+					assertEquals(ecdsa.sign(privs[i], hashes[i]), sigs[i], "sign "+i);
+				
+				//broken signatures, hashes of another item, a key which is not on the curve and a short signature
+				for(int i = 0; i < N; i += 5) {
+					switch(i%4) {
+					case 0: sigs[i] = sigs[i].substring(0, 100)+(sigs[i].charAt(100) == 'f'?'e':'f')+sigs[i].substring(101); break;
+					case 1: hashes[i] = hashes[(i+1)%N]; break;
+					case 2: pubs[i] = new byte[64]; break;
+					default: sigs[i] = sigs[i].substring(2);
+					}
+				}
+				boolean[] ok = engine.verifyAll(pubs, hashes, sigs);
+				byte[][] recovered = engine.recoverAll(hashes, sigs, KeyFormat.COMPRESSED);
+				for(int i = 0; i < N; ++i) {
+					assertEquals(verify(ecdsa, pubs[i], hashes[i], sigs[i]), ok[i], "verify "+i);
+					assertEquals(i%5 != 0, ok[i], "verify "+i);
+					assertArrayEquals(recover(ecdsa, hashes[i], sigs[i]), recovered[i], "recover "+i);
+				}
+				
+				for(int i = 0; i < N; ++i) {
+					hashes[i] = new byte[32];
+					rnd.nextBytes(hashes[i]);
+					pubs[i] = ecdsa.privateKeyToPublicKey(privs[i]);
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void emptyAndUnevenInputs() {
+		Ecdsa ecdsa = Ecdsa.from(Curve.SECP_256_R1);
+		try(BulkEngine engine = new BulkEngine(ecdsa, 2)) {
+			assertEquals(0, engine.signAll(new byte[0][], new byte[0][]).length);
+			assertEquals(0, engine.verifyAll(new byte[0][], new byte[0][], new String[0]).length);
+			assertThrows(RuntimeException.class, () -> engine.signAll(new byte[1][], new byte[2][]));
+			assertThrows(RuntimeException.class, () -> engine.verifyAll(new byte[1][], new byte[1][], new String[2]));
+			assertThrows(RuntimeException.class, () -> engine.recoverAll(new byte[2][], new String[1], KeyFormat.RAW));
+		}
+	}
+	
+	static boolean verify(Ecdsa ecdsa, byte[] pub, byte[] hash, String sig) {
+		try {
+			return ecdsa.verify(pub, hash, sig);
+		} catch(RuntimeException e) {
+			return false;
+		}
+	}
+	
+	static byte[] recover(Ecdsa ecdsa, byte[] hash, String sig) {
+		try {
+			return ecdsa.recoverToPublicKey(hash, sig, KeyFormat.COMPRESSED);
+		} catch(RuntimeException e) {
+			return null;
+		}
+	}
+}
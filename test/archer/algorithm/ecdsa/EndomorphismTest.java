@@ -0,0 +1,144 @@
+package archer.algorithm.ecdsa;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+public class EndomorphismTest {
+	
+	@Test
+	public void splitIsShort() {
+		for(Curve c: Curve.values()) {
+			Endomorphism e = c.endomorphism();
+			assertEquals(c.name().endsWith("K1"), e != null, c.name());
+			if(e == null)
+				continue;
+			int bits = (c.N.bitLength()>>1)+2;
+			for(BigInteger k: scalars(c)) {
+				BigInteger[] kk = e.split(k);
+				assertEquals(k.mod(c.N), kk[0].add(kk[1].multiply(e.lambda)).mod(c.N), c+" "+k);
+				assertTrue(kk[0].bitLength() <= bits && kk[1].bitLength() <= bits, c+" "+k);
+			}
+		}
+	}
+	
+	@Test
+	public void mapIsLambdaTimes() {
+		for(Curve c: Curve.values()) {
+			Endomorphism e = c.endomorphism();
+			if(e == null)
+				continue;
+			Ecdsa ecdsa = Ecdsa.from(c);
+			BigInteger[] p = multiply(c, c.Gx, c.Gy, new BigInteger("1234567890abcdef1234567890abcdef", 16));
+			Field.Scratch s = c.field.scratch();
+			int[][][] m = e.map(ecdsa, new int[][][] {ecdsa.toPoint(p[0], p[1])}, s);
+			assertArrayEquals(multiply(c, p[0], p[1], e.lambda), ecdsa.toAffine(m[0], s), c.name());
+		}
+	}
+	
+	@Test
+	public void multiplyMatchesDoubleAndAdd() {
+		for(Curve c: Curve.values()) {
+			Ecdsa ecdsa = Ecdsa.from(c);
+			Field.Scratch s = c.field.scratch();
+			BigInteger[] a = multiply(c, c.Gx, c.Gy, new BigInteger("fedcba9876543210fedcba98765", 16));
+			for(BigInteger k: scalars(c)) {
+				BigInteger[] kg = multiply(c, c.Gx, c.Gy, k), ka = multiply(c, a[0], a[1], k);
+				assertArrayEquals(kg, ecdsa.toAffine(ecdsa.fastMultiply(ecdsa.toPoint(c.Gx, c.Gy), k, s), s), c+" "+k);
+				assertArrayEquals(ka, ecdsa.toAffine(ecdsa.fastMultiply(ecdsa.toPoint(a[0], a[1]), k, s), s), c+" "+k);
+				assertArrayEquals(kg, ecdsa.toAffine(ecdsa.fastBaseMultiply(k, s), s), c+" "+k);
+				
+				BigInteger m = k.multiply(BigInteger.valueOf(3)).add(BigInteger.ONE).mod(c.N);
+				BigInteger[] joint = add(c, kg, multiply(c, a[0], a[1], m));
+				assertArrayEquals(joint, ecdsa.toAffine(ecdsa.fastJointMultiply(k, ecdsa.toPoint(a[0], a[1]), m, s), s), c+" "+k);
+			}
+		}
+	}
+	
+	/**
+	 * @return 0, 1, 2, N-1, N-2, (N-1)/2, lambda, lambda+1, N-lambda, scalars with all ones in the low half 
+	 * and seeded random scalars.
+	 * */
+	static List<BigInteger> scalars(Curve c) {
+		BigInteger N = c.N;
+		List<BigInteger> ks = new ArrayList<>();
+		for(long k: new long[] {0, 1, 2})
+			ks.add(BigInteger.valueOf(k));
+		ks.add(N.subtract(BigInteger.ONE));
+		ks.add(N.subtract(BigInteger.TWO));
+		ks.add(N.shiftRight(1));
+		Endomorphism e = c.endomorphism();
+		if(e != null) {
+			ks.add(e.lambda);
+			ks.add(e.lambda.add(BigInteger.ONE));
+			ks.add(N.subtract(e.lambda));
+		}
+		ks.add(BigInteger.ONE.shiftLeft(N.bitLength()>>1).subtract(BigInteger.ONE));
+		ks.add(BigInteger.ONE.shiftLeft(N.bitLength()-1).subtract(BigInteger.ONE));
+		Random random = new Random(N.hashCode());
+		for(int i = 0; i < 16; ++i)
+			ks.add(new BigInteger(N.bitLength(), random).mod(N));
+		return ks;
+	}
+	
+	/**
+	 * @return k*(x,y) by affine double and add over BigInteger, null for infinity.
+	 * */
+	static BigInteger[] multiply(Curve c, BigInteger x, BigInteger y, BigInteger k) {
+		BigInteger[] r = null, p = {x, y};
+		for(int i = k.bitLength()-1; i >= 0; --i) {
+			r = add(c, r, r);
+			if(k.testBit(i))
+				r = add(c, r, p);
+		}
+		return r;
+	}
+	
+	static BigInteger[] add(Curve c, BigInteger[] p, BigInteger[] q) {
+		if(p == null)
+			return q;
+		if(q == null)
+			return p;
+		BigInteger P = c.P, l;
+		if(p[0].equals(q[0])) {
+			if(!p[1].equals(q[1]) || p[1].signum() == 0)
+				return null;
+			l = p[0].pow(2).multiply(BigInteger.valueOf(3)).add(c.A).multiply(p[1].shiftLeft(1).modInverse(P)).mod(P);
+		} else
+			l = q[1].subtract(p[1]).multiply(q[0].subtract(p[0]).modInverse(P)).mod(P);
+		BigInteger x = l.pow(2).subtract(p[0]).subtract(q[0]).mod(P);
+		return new BigInteger[] {x, l.multiply(p[0].subtract(x)).subtract(p[1]).mod(P)};
+	}
+}
@@ -0,0 +1,173 @@
+package archer.algorithm.ecdsa;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+public class FieldTest {
+	
+	@Test
+	public void montgomeryFields() {
+		for(Curve c: Curve.values())
+			check(new MontgomeryField(c.P));
+	}
+	
+	@Test
+	public void curveFields() {
+		for(Curve c: Curve.values()) {
+			assertEquals(c.name().endsWith("K1")?PseudoMersenneField.class:NistField.class, c.field.getClass(), c.name());
+			check(c.field);
+			checkReduce(c.field);
+		}
+	}
+	
+	/**
+	 * The reductions of the curve fields on double width values below P^2, the ones mulWide and sqrWide give.
+	 * */
+	static void checkReduce(Field F) {
+		BigInteger P = F.P, P2 = P.multiply(P);
+		List<BigInteger> vs = new ArrayList<>();
+		vs.add(P.subtract(BigInteger.ONE).pow(2));
+		vs.add(P2.subtract(BigInteger.ONE));
+		vs.add(P2.subtract(P));
+		vs.add(P);
+		vs.add(P.shiftLeft(32*F.len));
+		for(int k = 32*F.len; k < 64*F.len; k += 32)
+			if(k <= P2.bitLength()-1)
+				vs.add(BigInteger.ONE.shiftLeft(k).subtract(BigInteger.ONE));
+		Random random = new Random(P.hashCode());
+		for(int i = 0; i < 64; ++i)
+			vs.add(new BigInteger(P2.bitLength(), random).mod(P2));
+		int[] r = new int[F.len];
+		long[] t = new long[2*F.len+2];
+		for(BigInteger v: vs) {
+			int[] limbs = Field.toLimbs(v, 2*F.len);
+			for(int i = 0; i < limbs.length; ++i)
+				t[i] = limbs[i]&Field.M;
+			if(F instanceof PseudoMersenneField)
+				((PseudoMersenneField) F).reduce(r, t);
+			else
+				((NistField) F).reduce(r, t);
+			assertReduced(F, r, v, F.getClass().getSimpleName()+" "+v.toString(16));
+		}
+	}
+	
+	/**
+	 * Every operation of F on limbs below P against BigInteger, results must be reduced below P.
+	 * */
+	static void check(Field F) {
+		String name = F.getClass().getSimpleName()+" "+F.P.toString(16);
+		List<int[]> xs = elements(F);
+		long[] t = F.scratch().t;
+		int[] r = new int[F.len];
+		for(int[] a: xs) {
+			BigInteger x = F.toBigInt(a);
+			assertArrayEquals(a, F.fromBigInt(x), name);
+			
+			F.sqr(r, a, t);
+			assertReduced(F, r, x.multiply(x), name);
+			F.neg(r, a);
+			assertReduced(F, r, x.negate(), name);
+			F.inv(r, a);
+			assertReduced(F, r, x.signum() == 0?x:x.modInverse(F.P), name);
+			for(int[] b: xs) {
+				BigInteger y = F.toBigInt(b);
+				F.mul(r, a, b, t);
+				assertReduced(F, r, x.multiply(y), name);
+				F.add(r, a, b);
+				assertReduced(F, r, x.add(y), name);
+				F.sub(r, a, b);
+				assertReduced(F, r, x.subtract(y), name);
+			}
+		}
+		
+		//in place, as the point formulas call them
+		for(int[] a: xs) {
+			BigInteger x = F.toBigInt(a);
+			int[] c = a.clone();
+			F.mul(c, c, c, t);
+			F.sqr(c, c, t);
+			assertReduced(F, c, x.pow(4), name);
+		}
+		
+		int[][] all = xs.toArray(new int[0][]);
+		int[][] inv = new int[all.length][];
+		for(int i = 0; i < all.length; ++i)
+			inv[i] = all[i].clone();
+		F.invAll(inv, t);
+		for(int i = 0; i < all.length; ++i) {
+			BigInteger x = F.toBigInt(all[i]);
+			assertReduced(F, inv[i], x.signum() == 0?x:x.modInverse(F.P), name);
+		}
+	}
+	
+	/**
+	 * @return limbs of 0, 1, P-1, P-2, R mod P, the values whose limbs are all ones below the top one, 
+	 * the top limb of P with the others zero or all ones, and random values, all below P.
+	 * */
+	static List<int[]> elements(Field F) {
+		BigInteger P = F.P;
+		List<BigInteger> vs = new ArrayList<>();
+		vs.add(BigInteger.ZERO);
+		vs.add(BigInteger.ONE);
+		vs.add(BigInteger.TWO);
+		vs.add(P.subtract(BigInteger.ONE));
+		vs.add(P.subtract(BigInteger.TWO));
+		vs.add(P.shiftRight(1));
+		vs.add(F.R);
+		BigInteger ones = BigInteger.ONE.shiftLeft(32*(F.len-1)).subtract(BigInteger.ONE);
+		vs.add(ones);
+		vs.add(ones.shiftRight(32));
+		vs.add(BigInteger.ONE.shiftLeft(32*F.len).subtract(BigInteger.ONE).mod(P));
+		BigInteger top = P.shiftRight(32*(F.len-1)).shiftLeft(32*(F.len-1));
+		vs.add(top);
+		vs.add(top.subtract(BigInteger.ONE));
+		vs.add(top.add(ones).min(P.subtract(BigInteger.ONE)));
+		for(int i = 0; i < F.len; ++i)
+			vs.add(BigInteger.valueOf(0xffffffffL).shiftLeft(32*i).mod(P));
+		Random random = new Random(F.P.hashCode());
+		for(int i = 0; i < 24; ++i)
+			vs.add(new BigInteger(P.bitLength(), random).mod(P));
+		List<int[]> out = new ArrayList<>();
+		for(BigInteger v: vs)
+			out.add(Field.toLimbs(v, F.len));
+		return out;
+	}
+	
+	static void assertReduced(Field F, int[] r, BigInteger expected, String name) {
+		assertFalse(F.geq(r, F.p), name);
+		assertEquals(expected.mod(F.P), F.toBigInt(r), name);
+	}
+}
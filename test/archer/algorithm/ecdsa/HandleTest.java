@@ -0,0 +1,88 @@
+package archer.algorithm.ecdsa;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+public class HandleTest {
+	
+	@Test
+	public void handlesMatchTheStringApi() {
+		Random rnd = new Random(14);
+		for(Curve c: Curve.values()) {
+			Ecdsa ecdsa = Ecdsa.from(c).withDeterministicNonces();
+			for(BigInteger k: PublicKeyTest.privateKeys(c)) {
+				byte[] priv = NumberUtil.bigIntToBytes(k), hash = new byte[32];
+				rnd.nextBytes(hash);
+				PrivateKeyHandle key = ecdsa.privateKeyHandle(priv);
+				PublicKeyHandle pub = key.getPublicKey();
+				byte[] pubBytes = ecdsa.privateKeyToPublicKey(priv);
+				assertArrayEquals(pubBytes, pub.getEncoded(KeyFormat.RAW), c+" "+k);
+				assertEquals(pub, ecdsa.publicKeyHandle(ecdsa.privateKeyToPublicKey(priv, KeyFormat.COMPRESSED)), c+" "+k);
+				
+				String sig = ecdsa.sign(priv, hash);
+				assertEquals(sig, ecdsa.sign(key, hash), c+" "+k);
+				ByteBuffer out = ByteBuffer.allocate(SignatureUtil.COMPACT_LENGTH+3).position(3);
+				ecdsa.sign(key, ByteBuffer.wrap(hash), out);
+				assertArrayEquals(NumberUtil.hexStrToBytes(sig), 
+						Arrays.copyOfRange(out.array(), 3, out.position()), c+" "+k);
+				assertEquals(pub, ecdsa.recoverToPublicKeyHandle(hash, sig), c+" "+k);
+				
+				//good, broken s and other hash
+				String bad = sig.substring(0, 127)+(sig.charAt(127) == '0'?'1':'0')+sig.substring(128);
+				byte[] other = hash.clone();
+				other[0] ^= 1;
+				for(String s: new String[] {sig, bad})
+					for(byte[] h: new byte[][] {hash, other}) {
+						boolean expected = ecdsa.verify(pubBytes, h, s);
+						assertEquals(s == sig && h == hash, expected, c+" "+k);
+						assertEquals(expected, ecdsa.verify(pub, h, s), c+" "+k);
+						assertEquals(expected, ecdsa.verify(pub, ByteBuffer.wrap(h), 
+								ByteBuffer.wrap(NumberUtil.hexStrToBytes(s))), c+" "+k);
+					}
+			}
+		}
+	}
+	
+	@Test
+	public void handlesOfAnotherCurveAreRejected() {
+		byte[] priv = {0x55, 0x66}, hash = new byte[32];
+		Ecdsa k1 = Ecdsa.from(Curve.SECP_256_K1), r1 = Ecdsa.from(Curve.SECP_256_R1);
+		PrivateKeyHandle key = k1.privateKeyHandle(priv);
+		String sig = k1.sign(key, hash);
+		assertThrows(RuntimeException.class, () -> r1.sign(key, hash));
+		assertThrows(RuntimeException.class, () -> r1.verify(key.getPublicKey(), hash, sig));
+	}
+}
@@ -0,0 +1,103 @@
+package archer.algorithm.ecdsa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+public class KeyCacheTest {
+	
+	static final byte[] HASH = new byte[32];
+	
+	/**
+	 * Verify one signature with the key of priv, a good one or a broken one, and wait for the table it may have scheduled.
+	 * */
+	static void verify(Ecdsa ecdsa, byte[] priv, boolean good) {
+		byte[] pub = ecdsa.privateKeyToPublicKey(priv);
+		String sig = ecdsa.sign(priv, HASH);
+		if(!good)
+			sig = sig.substring(0, 60)+(sig.charAt(60) == '0'?'1':'0')+sig.substring(61);
+		assertEquals(good, ecdsa.verify(pub, HASH, sig));
+		ForkJoinPool.commonPool().awaitQuiescence(10, TimeUnit.SECONDS);
+	}
+	
+	@Test
+	public void keyIsCachedAfterAdmission() {
+		assertNull(Ecdsa.from(Curve.SECP_256_K1).keyCacheStats());
+		Ecdsa ecdsa = Ecdsa.from(Curve.SECP_256_R1).withKeyCache(2);
+		byte[] priv = {0x31, 0x41, 0x59};
+		for(int i = 1; i < Ecdsa.KEY_CACHE_ADMIT; ++i) {
+			verify(ecdsa, priv, true);
+			assertEquals(0, ecdsa.keyCacheStats().getSize());
+		}
+		verify(ecdsa, priv, true);
+		CacheStats stats = ecdsa.keyCacheStats();
+		assertEquals(1, stats.getSize());
+		assertEquals(Ecdsa.KEY_CACHE_ADMIT, stats.getMisses());
+		assertEquals(0, stats.getHits());
+		
+		//verifications through the table still tell good and bad signatures apart
+		verify(ecdsa, priv, true);
+		verify(ecdsa, priv, false);
+		stats = ecdsa.keyCacheStats();
+		assertEquals(Ecdsa.KEY_CACHE_ADMIT, stats.getMisses());
+		assertEquals(2, stats.getHits());
+		
+		//the instance with deterministic nonces shares the tables
+		Ecdsa other = ecdsa.withDeterministicNonces();
+		verify(other, priv, true);
+		assertEquals(3, other.keyCacheStats().getHits());
+	}
+	
+	@Test
+	public void evictedKeyIsAdmittedAgain() {
+		Ecdsa ecdsa = Ecdsa.from(Curve.SECP_256_K1).withKeyCache(1);
+		byte[] a = {0x27, 0x18}, b = {0x28, 0x18};
+		for(int i = 0; i < Ecdsa.KEY_CACHE_ADMIT; ++i)
+			verify(ecdsa, a, true);
+		assertEquals(1, ecdsa.keyCacheStats().getSize());
+		
+		for(int i = 0; i < Ecdsa.KEY_CACHE_ADMIT; ++i)
+			verify(ecdsa, b, true);
+		CacheStats stats = ecdsa.keyCacheStats();
+		assertEquals(1, stats.getSize());
+		assertEquals(1, stats.getEvictions());
+		
+		//the count of a starts again after its table was built
+		for(int i = 0; i < Ecdsa.KEY_CACHE_ADMIT; ++i)
+			verify(ecdsa, a, true);
+		stats = ecdsa.keyCacheStats();
+		assertEquals(2, stats.getEvictions());
+		assertEquals(0, stats.getHits());
+		verify(ecdsa, a, true);
+		assertEquals(1, ecdsa.keyCacheStats().getHits());
+	}
+}
@@ -0,0 +1,118 @@
+package archer.algorithm.ecdsa;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+public class KeyRangeTest {
+	
+	static final int COUNT = 3*KeyRange.BLOCK+5;
+	
+	/**
+	 * @return public key of every private key start+i, null where it is a multiple of N.
+	 * */
+	static byte[][] expected(Ecdsa ecdsa, BigInteger start, KeyFormat format) {
+		byte[][] keys = new byte[COUNT][];
+		for(int i = 0; i < COUNT; ++i) {
+			BigInteger k = start.add(BigInteger.valueOf(i)).mod(ecdsa.N);
+			if(k.signum() != 0)
+				keys[i] = ecdsa.privateKeyToPublicKey(NumberUtil.bigIntToBytes(k), format);
+		}
+		return keys;
+	}
+	
+	static void check(Ecdsa ecdsa, BigInteger start, KeyFormat format) {
+		byte[][] expected = expected(ecdsa, start, format);
+		KeyRange range = ecdsa.publicKeyRange(NumberUtil.bigIntToBytes(start), COUNT, format);
+		assertEquals(COUNT, range.size());
+		
+		List<byte[]> ordered = new ArrayList<>();
+		range.forEach((i, k) -> {
+			assertEquals(ordered.size(), i);
+			ordered.add(k);
+		});
+		assertKeys(expected, ordered.toArray(new byte[0][]), "forEach");
+		
+		AtomicReferenceArray<byte[]> parallel = new AtomicReferenceArray<>(COUNT);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			range.forEach((i, k) -> assertNull(parallel.getAndSet((int) i, k == null?new byte[0]:k)), pool);
+		} finally {
+			pool.shutdown();
+		}
+		byte[][] keys = new byte[COUNT][];
+		for(int i = 0; i < COUNT; ++i)
+			keys[i] = parallel.get(i).length == 0?null:parallel.get(i);
+		assertKeys(expected, keys, "parallel forEach");
+		
+		assertKeys(expected, range.stream().toArray(byte[][]::new), "stream");
+		assertKeys(expected, range.stream().parallel().collect(Collectors.toList()).toArray(new byte[0][]), "parallel stream");
+		//a stream read partly by tryAdvance then by forEachRemaining
+		List<byte[]> mixed = new ArrayList<>();
+		Iterator<byte[]> it = range.stream().iterator();
+		for(int i = 0; i < KeyRange.BLOCK+1; ++i)
+			mixed.add(it.next());
+		it.forEachRemaining(mixed::add);
+		assertKeys(expected, mixed.toArray(new byte[0][]), "iterator");
+	}
+	
+	static void assertKeys(byte[][] expected, byte[][] actual, String walk) {
+		assertEquals(expected.length, actual.length, walk);
+		for(int i = 0; i < expected.length; ++i)
+			assertArrayEquals(expected[i], actual[i], walk+" "+i);
+	}
+	
+	@Test
+	public void rangeMatchesPrivateKeyToPublicKey() {
+		check(Ecdsa.from(Curve.SECP_256_K1), BigInteger.valueOf(KeyRange.BLOCK-7), KeyFormat.COMPRESSED);
+		check(Ecdsa.from(Curve.SECP_224_R1), BigInteger.ONE, KeyFormat.RAW);
+	}
+	
+	/**
+	 * The key of the multiple of N is null and the keys after it start again from G.
+	 * */
+	@Test
+	public void rangeCrossingN() {
+		for(Curve c: new Curve[] {Curve.SECP_256_R1, Curve.SECP_192_K1}) {
+			Ecdsa ecdsa = Ecdsa.from(c);
+			BigInteger start = c.N.subtract(BigInteger.valueOf(KeyRange.BLOCK+KeyRange.BLOCK/2));
+			check(ecdsa, start, KeyFormat.UNCOMPRESSED);
+			assertNull(expected(ecdsa, start, KeyFormat.RAW)[KeyRange.BLOCK+KeyRange.BLOCK/2]);
+		}
+	}
+}
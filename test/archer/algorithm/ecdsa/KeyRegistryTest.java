@@ -0,0 +1,119 @@
+package archer.algorithm.ecdsa;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+public class KeyRegistryTest {
+	
+	@TempDir
+	Path dir;
+	
+	@Test
+	public void emptyRegistry() throws Exception {
+		Path file = dir.resolve("empty.keys");
+		KeyRegistry.write(file, Curve.SECP_256_K1, new long[0], new byte[0][], 0);
+		Ecdsa ecdsa = Ecdsa.from(Curve.SECP_256_K1);
+		try(KeyRegistry registry = KeyRegistry.open(file)) {
+			assertEquals(0, registry.size());
+			assertEquals(-1, registry.find(7));
+			assertEquals(-1, registry.find(ecdsa.privateKeyToPublicKey(new byte[] {5})));
+		}
+	}
+	
+	@Test
+	public void roundTrip() throws Exception {
+		for(Curve c: new Curve[] {Curve.SECP_192_R1, Curve.SECP_256_K1})
+			for(int width: new int[] {0, 5})
+				roundTrip(c, KeyRegistry.BLOCK+3, width);
+		roundTrip(Curve.SECP_224_K1, 1, 4);
+	}
+	
+	/**
+	 * Write n keys with scattered ids in scattered formats, then find every key by id and in every format, 
+	 * and verify a signature of each by its handle.
+	 * */
+	void roundTrip(Curve c, int n, int width) throws Exception {
+		Ecdsa ecdsa = Ecdsa.from(c);
+		Random random = new Random(n*31L+width);
+		long[] ids = new long[n];
+		byte[][] privs = new byte[n][], pubs = new byte[n][];
+		KeyFormat[] formats = KeyFormat.values();
+		for(int i = 0; i < n; ++i) {
+			ids[i] = random.nextLong();
+			privs[i] = new BigInteger(c.N.bitLength()-8, random).setBit(0).toByteArray();
+			pubs[i] = ecdsa.privateKeyToPublicKey(privs[i], formats[i%formats.length]);
+		}
+		Path file = dir.resolve(c+"-"+width+".keys");
+		KeyRegistry.write(file, c, ids, pubs, width);
+		
+		byte[] hash = new byte[32];
+		random.nextBytes(hash);
+		try(KeyRegistry registry = KeyRegistry.open(file)) {
+			assertEquals(c, registry.getCurve());
+			assertEquals(n, registry.size());
+			boolean[] seen = new boolean[n];
+			for(int i = 0; i < n; ++i) {
+				int key = registry.find(ids[i]);
+				assertTrue(key >= 0 && !seen[key], c+" "+i);
+				seen[key] = true;
+				assertEquals(ids[i], registry.id(key));
+				for(KeyFormat f: formats) {
+					byte[] pub = ecdsa.privateKeyToPublicKey(privs[i], f);
+					assertEquals(key, registry.find(pub), c+" "+i+" "+f);
+					assertArrayEquals(pub, registry.publicKey(key, f));
+				}
+				String sig = ecdsa.sign(privs[i], hash);
+				assertTrue(ecdsa.verify(registry, key, hash, sig), c+" "+i);
+				assertFalse(ecdsa.verify(registry, key, Arrays.copyOf(hash, 31), sig), c+" "+i);
+			}
+			
+			//a key and an id which are not registered, malformed keys
+			long other = random.nextLong();
+			assertEquals(-1, registry.find(other));
+			assertEquals(-1, registry.find(ecdsa.privateKeyToPublicKey(new byte[] {1, 2, 3}, KeyFormat.COMPRESSED)));
+			assertEquals(-1, registry.find(ecdsa.privateKeyToPublicKey(new byte[] {1, 2, 3})));
+			byte[] bad = ecdsa.privateKeyToPublicKey(privs[0], KeyFormat.COMPRESSED);
+			bad[0] = 5;
+			assertEquals(-1, registry.find(bad));
+			Arrays.fill(bad, 1, bad.length, (byte) 0xff);
+			bad[0] = 2;
+			assertEquals(-1, registry.find(bad));
+			assertEquals(-1, registry.find(new byte[7]));
+		}
+	}
+}
@@ -0,0 +1,179 @@
+package archer.algorithm.ecdsa;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+public class LaneFieldTest {
+	
+	/**
+	 * Set by the vector profile, lanes must then exist on the 256 bits curves instead of being skipped.
+	 * */
+	static final String REQUIRED = "archer.ecdsa.vector.required";
+	
+	static final Curve[] CURVES = {Curve.SECP_256_K1, Curve.SECP_256_R1};
+	
+	static LaneField lanes(Curve c) {
+		LaneField lanes = LaneField.of(c.field);
+		if(Boolean.getBoolean(REQUIRED))
+			assertNotNull(lanes, c.name());
+		else
+			assumeTrue(lanes != null, "no vector lanes, run with -Pvector");
+		return lanes;
+	}
+	
+	/**
+	 * mul, sqr, add, sub lane by lane against F, elements taken to Montgomery form of the lanes and back.
+	 * */
+	@Test
+	public void arithmeticMatchesField() {
+		for(Curve c: CURVES) {
+			LaneField L = lanes(c);
+			Field F = c.field;
+			long[] t = L.scratch(), ft = F.scratch().t;
+			List<int[]> xs = FieldTest.elements(F);
+			for(int off = 0; off < xs.size(); ++off) {
+				long[] a = L.newElement(), b = L.newElement(), r = L.newElement();
+				int[][] as = new int[L.lanes][], bs = new int[L.lanes][];
+				for(int k = 0; k < L.lanes; ++k) {
+					as[k] = xs.get((off+k)%xs.size());
+					bs[k] = xs.get((off*7+3*k)%xs.size());
+					L.set(a, k, as[k]);
+					L.set(b, k, bs[k]);
+				}
+				
+				//add and sub do not depend on the representation
+				int[] e = new int[F.len];
+				L.add(r, a, b);
+				for(int k = 0; k < L.lanes; ++k) {
+					F.add(e, as[k], bs[k]);
+					assertArrayEquals(e, L.get(r, k), c+" add");
+				}
+				L.sub(r, a, b);
+				for(int k = 0; k < L.lanes; ++k) {
+					F.sub(e, as[k], bs[k]);
+					assertArrayEquals(e, L.get(r, k), c+" sub");
+				}
+				
+				L.mul(a, a, L.toMont, t);
+				L.mul(b, b, L.toMont, t);
+				L.mul(r, a, b, t);
+				L.mul(r, r, L.fromMont, t);
+				for(int k = 0; k < L.lanes; ++k) {
+					F.mul(e, as[k], bs[k], ft);
+					assertArrayEquals(e, L.get(r, k), c+" mul");
+				}
+				L.sqr(r, a, t);
+				L.mul(r, r, L.fromMont, t);
+				for(int k = 0; k < L.lanes; ++k) {
+					F.sqr(e, as[k], ft);
+					assertArrayEquals(e, L.get(r, k), c+" sqr");
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void zerosAndBlend() {
+		for(Curve c: CURVES) {
+			LaneField L = lanes(c);
+			Field F = c.field;
+			long[] a = L.newElement(), b = L.broadcast(F.fromBigInt(c.P.subtract(BigInteger.ONE)));
+			long expected = 0;
+			for(int k = 0; k < L.lanes; ++k) {
+				if(k%3 == 1) {
+					expected |= 1L<<k;
+					continue;
+				}
+				L.set(a, k, F.fromBigInt(BigInteger.valueOf(k+1)));
+			}
+			assertEquals(expected, L.zeros(a), c.name());
+			L.blend(a, b, expected);
+			assertEquals(0, L.zeros(a), c.name());
+			for(int k = 0; k < L.lanes; ++k)
+				assertArrayEquals(F.fromBigInt(k%3 == 1?c.P.subtract(BigInteger.ONE):BigInteger.valueOf(k+1)), L.get(a, k));
+		}
+	}
+	
+	@Test
+	public void powMatchesBigInteger() {
+		for(Curve c: CURVES) {
+			LaneField L = lanes(c);
+			List<BigInteger> xs = new ArrayList<>();
+			for(int[] x: FieldTest.elements(c.field))
+				xs.add(c.field.toBigInt(x));
+			BigInteger[] a = xs.toArray(new BigInteger[0]);
+			for(BigInteger e: new BigInteger[] {BigInteger.ZERO, BigInteger.ONE, BigInteger.valueOf(17), 
+					c.P.subtract(BigInteger.TWO), c.P.add(BigInteger.ONE).shiftRight(2)}) {
+				BigInteger[] r = L.pow(a, e);
+				for(int i = 0; i < a.length; ++i)
+					assertEquals(a[i].modPow(e, c.P), r[i], c+" "+a[i]+"^"+e);
+			}
+		}
+	}
+	
+	/**
+	 * A count which is not a multiple of the lanes, edge scalars included, lanes left to the scalar path give null.
+	 * */
+	@Test
+	public void multiplyMatchesBaseMultiply() {
+		for(Curve c: CURVES) {
+			LaneField L = lanes(c);
+			Ecdsa ecdsa = Ecdsa.from(c);
+			Random random = new Random(c.ordinal());
+			List<BigInteger> ns = new ArrayList<>();
+			ns.add(BigInteger.ZERO);
+			ns.add(BigInteger.ONE);
+			ns.add(BigInteger.valueOf(16));
+			ns.add(c.N.subtract(BigInteger.ONE));
+			while(ns.size() < 3*L.lanes+5)
+				ns.add(new BigInteger(c.N.bitLength(), random).mod(c.N));
+			BigInteger[] n = ns.toArray(new BigInteger[0]);
+			int[][][] out = new int[n.length][][];
+			L.multiply(c.baseTable(), n, out);
+			Field.Scratch s = c.field.scratch();
+			int computed = 0;
+			for(int i = 0; i < n.length; ++i) {
+				if(out[i] == null)
+					continue;
+				++computed;
+				assertArrayEquals(ecdsa.toAffine(ecdsa.fastBaseMultiply(n[i], s), s), ecdsa.toAffine(out[i], s), c+" "+n[i]);
+			}
+			assertTrue(computed >= n.length-2, c.name());
+		}
+	}
+}
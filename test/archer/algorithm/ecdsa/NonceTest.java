@@ -0,0 +1,121 @@
+package archer.algorithm.ecdsa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+public class NonceTest {
+	
+	/**
+	 * RFC 6979 appendix A.2.5, P-256 with SHA-256.
+	 * */
+	static final BigInteger X256 = new BigInteger("C9AFA9D845BA75166B5C215767B1D6934E50C3DB36E89B127B8A622B120F6721", 16);
+	static final BigInteger UX256 = new BigInteger("60FED4BA255A9D31C961EB74C6356D68C049B8923B61FA6CE669622E60F29FB6", 16);
+	static final BigInteger UY256 = new BigInteger("7903FE1008B8BC99A41AE9E95628BC64F2F1B20C2D7E9F5177A3C294D4462299", 16);
+	
+	/**
+	 * RFC 6979 appendix A.2.3, P-192 with SHA-256. Its s is not checked, sign uses the whole hash 
+	 * as z where the RFC keeps the leftmost 192 bits, the nonce and r do not depend on it.
+	 * */
+	static final BigInteger X192 = new BigInteger("6FAB034934E4C0FC9AE67F5B5659A9D7D1FEFD187EE09FD4", 16);
+	
+	@Test
+	public void p256Sample() throws Exception {
+		check(Curve.SECP_256_R1, X256, "sample", 
+				"A6E3C57DD01ABE90086538398355DD4C3B17AA873382B0F24D6129493D8AAD60", 
+				"EFD48B2AACB6A8FD1140DD9CD45E81D69D2C877B56AAF991C34D0EA84EAF3716", 
+				"F7CB1C942D657C41D436C7A1B6E29F65F3E900DBB9AFF4064DC4AB2F843ACDA8");
+	}
+	
+	@Test
+	public void p256Test() throws Exception {
+		check(Curve.SECP_256_R1, X256, "test", 
+				"D16B6AE827F17175E040871A1C7EC3500192C4C92677336EC2537ACAEE0008E0", 
+				"F1ABB023518351CD71D881567B1EA663ED3EFCF6C5132B354F28D3B0B7D38367", 
+				"019F4113742A2B14BD25926B49C649155F267E60D3814B4C0CC84250E46F0083");
+	}
+	
+	@Test
+	public void p192Sample() throws Exception {
+		check(Curve.SECP_192_R1, X192, "sample", 
+				"32B1B6D7D42A05CB449065727A84804FB1A3E34D8F261496", 
+				"4B0B8CE98A92866A2820E20AA6B75B56382E0F9BFD5ECB55", null);
+	}
+	
+	@Test
+	public void p256PublicKey() {
+		BigInteger[] u = Ecdsa.from(Curve.SECP_256_R1).publicPoint(X256);
+		assertEquals(UX256, u[0]);
+		assertEquals(UY256, u[1]);
+	}
+	
+	/**
+	 * Random nonces are seeded with extra bytes, they must differ from the deterministic one.
+	 * */
+	@Test
+	public void randomNoncesDiffer() throws Exception {
+		Ecdsa ecdsa = Ecdsa.from(Curve.SECP_256_R1);
+		byte[] hash = sha256("sample"), octets = Ecdsa.int2octets(X256, 32);
+		BigInteger k = ecdsa.nonce(octets, hash, null);
+		assertNotEquals(k, ecdsa.nonce(octets, hash, new byte[32]));
+		String sig = ecdsa.sign(X256.toByteArray(), hash);
+		assertNotEquals(sig, ecdsa.sign(X256.toByteArray(), hash));
+		assertTrue(ecdsa.verify(ecdsa.privateKeyToPublicKey(X256.toByteArray()), hash, sig));
+	}
+	
+	/**
+	 * The library keeps the lower of s and N-s, the vector may give either, null s is not checked.
+	 * */
+	static void check(Curve c, BigInteger x, String msg, String k, String r, String s) throws Exception {
+		Ecdsa ecdsa = Ecdsa.from(c).withDeterministicNonces();
+		int rlen = (c.N.bitLength()+7)>>3;
+		byte[] hash = sha256(msg);
+		assertEquals(new BigInteger(k, 16), ecdsa.nonce(Ecdsa.int2octets(x, rlen), hash, null), c+" k");
+		
+		byte[] priv = x.toByteArray();
+		String sig = ecdsa.sign(priv, hash);
+		BigInteger sr = new BigInteger(sig.substring(0, 64), 16), ss = new BigInteger(sig.substring(64, 128), 16);
+		assertEquals(new BigInteger(r, 16), sr, c+" r");
+		if(s != null) {
+			BigInteger es = new BigInteger(s, 16);
+			assertEquals(es.min(c.N.subtract(es)), ss, c+" s");
+		}
+		assertEquals(sig, ecdsa.sign(priv, hash), c+" deterministic");
+		assertTrue(ecdsa.verify(ecdsa.privateKeyToPublicKey(priv), hash, sig), c+" verify");
+	}
+	
+	static byte[] sha256(String msg) throws Exception {
+		return MessageDigest.getInstance("SHA-256").digest(msg.getBytes(StandardCharsets.US_ASCII));
+	}
+}
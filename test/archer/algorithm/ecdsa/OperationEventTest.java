@@ -0,0 +1,79 @@
+package archer.algorithm.ecdsa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+public class OperationEventTest {
+	
+	@Test
+	public void eventCarriesTheMeasuredTime() throws Exception {
+		Ecdsa ecdsa = Ecdsa.from(Curve.SECP_256_K1);
+		byte[] priv = {0x12, 0x34}, hash = new byte[32];
+		assertFalse(OperationEvent.EVENT_TYPE.isEnabled());
+		
+		Path file = Files.createTempFile("operation", ".jfr");
+		Metrics.enable(null);
+		try(Recording recording = new Recording()) {
+			recording.enable("archer.ecdsa.Operation");
+			recording.start();
+			assertTrue(OperationEvent.EVENT_TYPE.isEnabled());
+			for(int i = 0; i < 3; ++i)
+				ecdsa.sign(priv, hash);
+			recording.stop();
+			recording.dump(file);
+			
+			List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+					.filter(e -> e.getEventType().getName().equals("archer.ecdsa.Operation"))
+					.filter(e -> e.getString("operation").equals("SIGN"))
+					.collect(Collectors.toList());
+			assertEquals(3, events.size());
+			for(RecordedEvent e: events) {
+				assertEquals(Curve.SECP_256_K1.name(), e.getString("curve"));
+				assertTrue(e.getDuration("nanos").compareTo(Duration.ZERO) > 0);
+				assertEquals(Duration.ZERO, e.getDuration());
+			}
+		} finally {
+			Metrics.disable();
+			Files.delete(file);
+		}
+		assertFalse(OperationEvent.EVENT_TYPE.isEnabled());
+	}
+}
@@ -0,0 +1,170 @@
+package archer.algorithm.ecdsa;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+public class PublicKeyTest {
+	
+	static final int KEYS = 24;
+	
+	static BigInteger[] privateKeys(Curve c) {
+		Random r = new Random(c.ordinal()+12);
+		BigInteger[] ks = new BigInteger[KEYS];
+		ks[0] = BigInteger.ONE;
+		ks[1] = c.N.subtract(BigInteger.ONE);
+		for(int i = 2; i < ks.length; ++i)
+			ks[i] = new BigInteger(c.N.bitLength(), r).mod(c.N.subtract(BigInteger.ONE)).add(BigInteger.ONE);
+		return ks;
+	}
+	
+	/**
+	 * @return if f(x) = x^3 + a*x + b is a square, by Euler's criterion.
+	 * */
+	static boolean isSquare(Ecdsa ecdsa, BigInteger x) {
+		BigInteger f = x.pow(3).add(x.multiply(ecdsa.A)).add(ecdsa.B).mod(ecdsa.P);
+		return f.signum() == 0 || f.modPow(ecdsa.P.shiftRight(1), ecdsa.P).equals(BigInteger.ONE);
+	}
+	
+	static byte[] compressed(boolean odd, BigInteger x) {
+		byte[] key = new byte[KeyFormat.COMPRESSED.length];
+		key[0] = odd?SignatureUtil.SEC1_ODD:SignatureUtil.SEC1_EVEN;
+		byte[] xs = x.toByteArray();
+		int n = Math.min(xs.length, SignatureUtil.SCALAR_LENGTH);
+		System.arraycopy(xs, xs.length-n, key, key.length-n, n);
+		return key;
+	}
+	
+	/**
+	 * Compressed keys decompress to the uncompressed key of the same private key, 
+	 * secp224k1 and secp224r1 have P = 1 (mod = 4) and take the Tonelli-Shanks square root.
+	 * */
+	@Test
+	public void compressedRoundTrip() {
+		for(Curve c: Curve.values()) {
+			Ecdsa ecdsa = Ecdsa.from(c);
+			assertEquals(c == Curve.SECP_224_K1 || c == Curve.SECP_224_R1, ecdsa.sqrtE > 1, c.name());
+			for(BigInteger k: privateKeys(c)) {
+				byte[] priv = NumberUtil.bigIntToBytes(k);
+				byte[] raw = ecdsa.privateKeyToPublicKey(priv);
+				byte[] compressed = ecdsa.privateKeyToPublicKey(priv, KeyFormat.COMPRESSED);
+				assertArrayEquals(compressed, ecdsa.convertPublicKey(raw, KeyFormat.COMPRESSED), c+" "+k);
+				assertArrayEquals(raw, ecdsa.convertPublicKey(compressed, KeyFormat.RAW), c+" "+k);
+				assertArrayEquals(ecdsa.privateKeyToPublicKey(priv, KeyFormat.UNCOMPRESSED), 
+						ecdsa.convertPublicKey(compressed, KeyFormat.UNCOMPRESSED), c+" "+k);
+				//second read comes from the cache of the curve
+				assertArrayEquals(raw, ecdsa.convertPublicKey(compressed, KeyFormat.RAW), c+" "+k);
+			}
+		}
+	}
+	
+	@Test
+	public void recoverIsTheSigner() {
+		Random r = new Random(12);
+		for(Curve c: Curve.values()) {
+			Ecdsa ecdsa = Ecdsa.from(c);
+			for(BigInteger k: privateKeys(c)) {
+				byte[] priv = NumberUtil.bigIntToBytes(k), hash = new byte[32];
+				r.nextBytes(hash);
+				String sig = ecdsa.sign(priv, hash);
+				assertArrayEquals(ecdsa.privateKeyToPublicKey(priv), ecdsa.recoverToPublicKey(hash, sig), c+" "+k);
+				assertArrayEquals(ecdsa.privateKeyToPublicKey(priv, KeyFormat.COMPRESSED), 
+						ecdsa.recoverToPublicKey(hash, sig, KeyFormat.COMPRESSED), c+" "+k);
+				assertTrue(ecdsa.verify(ecdsa.privateKeyToPublicKey(priv, KeyFormat.COMPRESSED), hash, sig), c+" "+k);
+			}
+		}
+	}
+	
+	/**
+	 * Square roots agree with Euler's criterion, one by one and in a batch.
+	 * */
+	@Test
+	public void liftXMatchesCriterion() {
+		for(Curve c: Curve.values()) {
+			Ecdsa ecdsa = Ecdsa.from(c);
+			Random r = new Random(c.ordinal());
+			BigInteger[] xs = new BigInteger[KEYS];
+			boolean[] odd = new boolean[KEYS];
+			for(int i = 0; i < xs.length; ++i) {
+				xs[i] = new BigInteger(c.P.bitLength(), r).mod(c.P);
+				odd[i] = r.nextBoolean();
+			}
+			BigInteger[] ys = ecdsa.liftX(xs, odd);
+			for(int i = 0; i < xs.length; ++i) {
+				BigInteger y = ecdsa.liftX(xs[i], odd[i]);
+				assertEquals(y, ys[i], c+" "+xs[i]);
+				if(!isSquare(ecdsa, xs[i])) {
+					assertNull(y, c+" "+xs[i]);
+					continue;
+				}
+				assertTrue(ecdsa.isOnCurve(xs[i], y), c+" "+xs[i]);
+				assertEquals(odd[i], y.testBit(0), c+" "+xs[i]);
+			}
+		}
+	}
+	
+	@Test
+	public void rejectsPointsOffTheCurve() {
+		for(Curve c: Curve.values()) {
+			Ecdsa ecdsa = Ecdsa.from(c);
+			BigInteger x = BigInteger.ONE;
+			while(isSquare(ecdsa, x))
+				x = x.add(BigInteger.ONE);
+			for(boolean odd: new boolean[] {false, true}) {
+				byte[] nonResidue = compressed(odd, x);
+				assertThrows(RuntimeException.class, () -> ecdsa.convertPublicKey(nonResidue, KeyFormat.RAW), c+" "+x);
+				//rejected keys are not cached
+				assertThrows(RuntimeException.class, () -> ecdsa.convertPublicKey(nonResidue, KeyFormat.RAW), c+" "+x);
+			}
+			
+			//x = P and x = P+x' where x' has a y, the x' key is accepted
+			BigInteger y = BigInteger.ONE;
+			while(!isSquare(ecdsa, y))
+				y = y.add(BigInteger.ONE);
+			byte[] onCurve = compressed(false, y);
+			ecdsa.convertPublicKey(onCurve, KeyFormat.RAW);
+			for(BigInteger big: new BigInteger[] {c.P, c.P.add(y)}) {
+				if(big.bitLength() > SignatureUtil.SCALAR_LENGTH*8)
+					continue;
+				byte[] key = compressed(false, big);
+				assertThrows(RuntimeException.class, () -> ecdsa.convertPublicKey(key, KeyFormat.RAW), c+" "+big);
+			}
+			
+			byte[] badPrefix = onCurve.clone();
+			badPrefix[0] = SignatureUtil.SEC1_UNCOMPRESSED;
+			assertThrows(RuntimeException.class, () -> ecdsa.convertPublicKey(badPrefix, KeyFormat.RAW), c.name());
+		}
+	}
+}
@@ -0,0 +1,189 @@
+package archer.algorithm.ecdsa;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+public class SignatureUtilTest {
+	
+	static final byte[] HIGH = bytes(32, 0x80);
+	static final byte[] LOW = bytes(32, 0x7f);
+	
+	/**
+	 * @return n bytes, the first one is first and the others count up from 1.
+	 * */
+	static byte[] bytes(int n, int first) {
+		byte[] bs = new byte[n];
+		bs[0] = (byte) first;
+		for(int i = 1; i < n; ++i)
+			bs[i] = (byte) i;
+		return bs;
+	}
+	
+	static byte[] cat(byte[] ...parts) {
+		int n = 0;
+		for(byte[] p: parts)
+			n += p.length;
+		byte[] out = new byte[n];
+		int off = 0;
+		for(byte[] p: parts) {
+			System.arraycopy(p, 0, out, off, p.length);
+			off += p.length;
+		}
+		return out;
+	}
+	
+	static byte[] integer(byte[] content) {
+		return cat(new byte[] {SignatureUtil.DER_INTEGER, (byte) content.length}, content);
+	}
+	
+	static byte[] sequence(byte[] ...parts) {
+		byte[] body = cat(parts);
+		return cat(new byte[] {SignatureUtil.DER_SEQUENCE, (byte) body.length}, body);
+	}
+	
+	@Test
+	public void acceptsMinimalIntegers() {
+		byte[] der = sequence(integer(cat(new byte[1], HIGH)), integer(LOW));
+		BigInteger[] rs = SignatureUtil.getDer(ByteBuffer.wrap(der));
+		assertEquals(new BigInteger(1, HIGH), rs[0]);
+		assertEquals(new BigInteger(1, LOW), rs[1]);
+		
+		rs = SignatureUtil.getDer(ByteBuffer.wrap(sequence(integer(new byte[] {1}), integer(new byte[] {0, (byte) 0x80}))));
+		assertEquals(BigInteger.ONE, rs[0]);
+		assertEquals(BigInteger.valueOf(0x80), rs[1]);
+		
+		rs = SignatureUtil.getDer(ByteBuffer.wrap(new byte[] {SignatureUtil.DER_SEQUENCE, 6, 2, 1, 1, 2, 1, 2}));
+		assertEquals(BigInteger.ONE, rs[0]);
+		assertEquals(BigInteger.TWO, rs[1]);
+	}
+	
+	@Test
+	public void rejectsMalformed() {
+		byte[][] bad = {
+			//a zero byte the sign does not need
+			sequence(integer(cat(new byte[1], LOW)), integer(LOW)),
+			sequence(integer(LOW), integer(new byte[] {0, 1})),
+			//no sign byte, the integers are negative
+			sequence(integer(HIGH), integer(LOW)),
+			sequence(integer(LOW), integer(HIGH)),
+			//zero, empty and too long integers
+			sequence(integer(new byte[] {0}), integer(LOW)),
+			sequence(integer(new byte[0]), integer(LOW)),
+			sequence(integer(cat(new byte[] {1}, HIGH, new byte[] {1})), integer(LOW)),
+			//trailing bytes inside and after the sequence
+			sequence(integer(LOW), integer(LOW), new byte[] {0}),
+			cat(sequence(integer(LOW), integer(LOW)), new byte[] {0}),
+			//one integer, wrong tags
+			sequence(integer(LOW)),
+			sequence(integer(LOW), cat(new byte[] {4, 32}, LOW)),
+			new byte[0],
+		};
+		for(int i = 0; i < bad.length; ++i) {
+			byte[] der = bad[i];
+			assertThrows(RuntimeException.class, () -> SignatureUtil.getDer(ByteBuffer.wrap(der)), "vector "+i);
+		}
+		
+		//wrong sequence lengths
+		byte[] der = sequence(integer(LOW), integer(LOW));
+		for(int d: new int[] {-1, 1, 0x80}) {
+			byte[] b = der.clone();
+			b[1] += d;
+			assertThrows(RuntimeException.class, () -> SignatureUtil.getDer(ByteBuffer.wrap(b)), "length "+b[1]);
+		}
+		//integer length running past the sequence
+		byte[] b = der.clone();
+		b[3] = (byte) 40;
+		assertThrows(RuntimeException.class, () -> SignatureUtil.getDer(ByteBuffer.wrap(b)));
+	}
+	
+	/**
+	 * The signature is read between position and limit of heap, sliced and direct buffers, the position is kept.
+	 * */
+	@Test
+	public void readsBetweenPositionAndLimit() {
+		byte[] der = sequence(integer(cat(new byte[1], HIGH)), integer(LOW));
+		byte[] around = cat(bytes(5, 0x30), der, bytes(3, 0x02));
+		
+		ByteBuffer heap = ByteBuffer.wrap(around);
+		heap.position(5).limit(5+der.length);
+		ByteBuffer slice = ByteBuffer.wrap(around, 2, around.length-2).slice();
+		slice.position(3).limit(3+der.length);
+		ByteBuffer direct = ByteBuffer.allocateDirect(around.length).put(around);
+		direct.position(5).limit(5+der.length);
+		for(ByteBuffer buffer: new ByteBuffer[] {heap, slice, direct}) {
+			int position = buffer.position();
+			BigInteger[] rs = SignatureUtil.getDer(buffer);
+			assertEquals(new BigInteger(1, HIGH), rs[0]);
+			assertEquals(new BigInteger(1, LOW), rs[1]);
+			assertEquals(position, buffer.position());
+			
+			//the bytes after the limit are trailing bytes once the limit moves
+			buffer.limit(buffer.limit()+1);
+			assertThrows(RuntimeException.class, () -> SignatureUtil.getDer(buffer));
+		}
+	}
+	
+	@Test
+	public void compactRoundTrip() {
+		byte[] compact = cat(HIGH, LOW, new byte[] {1});
+		byte[] der = SignatureUtil.compactToDer(compact);
+		assertArrayEquals(sequence(integer(cat(new byte[1], HIGH)), integer(LOW)), der);
+		assertArrayEquals(Arrays.copyOf(compact, 64), SignatureUtil.derToCompact(der));
+		
+		BigInteger[] rs = SignatureUtil.getCompact(ByteBuffer.wrap(compact, 0, 64));
+		assertNull(rs[2]);
+		assertEquals(BigInteger.ONE, SignatureUtil.getCompact(ByteBuffer.wrap(compact))[2]);
+		assertThrows(RuntimeException.class, () -> SignatureUtil.getCompact(ByteBuffer.wrap(compact, 0, 63)));
+		
+		//short integers are left padded
+		byte[] small = SignatureUtil.derToCompact(sequence(integer(new byte[] {1}), integer(new byte[] {2})));
+		assertEquals(1, small[31]);
+		assertEquals(2, small[63]);
+	}
+	
+	@Test
+	public void verifyDerAtAnOffset() {
+		Ecdsa ecdsa = Ecdsa.from(Curve.SECP_256_R1);
+		byte[] priv = {0x11, 0x22, 0x33, 0x44};
+		byte[] hash = bytes(32, 0x5c), pub = ecdsa.privateKeyToPublicKey(priv);
+		byte[] der = SignatureUtil.compactToDer(NumberUtil.hexStrToBytes(ecdsa.sign(priv, hash)));
+		ByteBuffer sig = ByteBuffer.wrap(cat(bytes(9, 0), der, bytes(4, 0)));
+		sig.position(9).limit(9+der.length);
+		assertTrue(ecdsa.verifyDer(ByteBuffer.wrap(pub), ByteBuffer.wrap(hash), sig));
+		assertEquals(9, sig.position());
+	}
+}
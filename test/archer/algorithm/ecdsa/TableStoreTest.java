@@ -0,0 +1,210 @@
+package archer.algorithm.ecdsa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+public class TableStoreTest {
+	
+	static final byte[] PRIV = new BigInteger("7d5b2a4e19c3f08e6a1b94d27c0f3e58a9b6d41e", 16).toByteArray();
+	static final byte[] HASH = "sample".getBytes(StandardCharsets.US_ASCII);
+	
+	@TempDir
+	Path dir;
+	
+	@Test
+	public void autoloadInFreshJvm() throws Exception {
+		Path file = dir.resolve("tables.bin");
+		TableStore.save(file);
+		List<String> lines = run(file, Child.class);
+		for(Curve c: Curve.values())
+			assertEquals(c+" true "+expected(c), lines.get(c.ordinal()));
+	}
+	
+	@Test
+	public void truncatedFileBuildsTables() throws Exception {
+		Path file = dir.resolve("tables.bin");
+		TableStore.save(file);
+		byte[] bs = Files.readAllBytes(file);
+		Files.write(file, java.util.Arrays.copyOf(bs, bs.length/2));
+		List<String> lines = run(file, Child.class);
+		for(Curve c: Curve.values())
+			assertEquals(c+" false "+expected(c), lines.get(c.ordinal()));
+	}
+	
+	@Test
+	public void damagedSectionBuildsItsTable() throws Exception {
+		Path file = dir.resolve("tables.bin");
+		TableStore.save(file);
+		ByteBuffer b = ByteBuffer.wrap(Files.readAllBytes(file));
+		//flip a bit of the last point of the first section, the checksum rejects it
+		int entry = TableStore.HEADER;
+		int ordinal = b.getInt(entry), end = (int) b.getLong(entry+4)+b.getInt(entry+12);
+		b.put(end-1, (byte) (b.get(end-1)^1));
+		Files.write(file, b.array());
+		List<String> lines = run(file, Child.class);
+		for(Curve c: Curve.values())
+			assertEquals(c+" "+(c.ordinal() != ordinal)+" "+expected(c), lines.get(c.ordinal()));
+	}
+	
+	@Test
+	public void pointOffCurveBuildsItsTable() throws Exception {
+		Path file = dir.resolve("tables.bin");
+		TableStore.save(file);
+		ByteBuffer b = ByteBuffer.wrap(Files.readAllBytes(file));
+		//same damage with a checksum which matches it, the points themselves must be rejected
+		int entry = TableStore.HEADER+TableStore.ENTRY;
+		int ordinal = b.getInt(entry), off = (int) b.getLong(entry+4), len = b.getInt(entry+12);
+		b.put(off+len-1, (byte) (b.get(off+len-1)^1));
+		CRC32C crc = new CRC32C();
+		crc.update(b.array(), off, len);
+		b.putLong(entry+16, crc.getValue());
+		Files.write(file, b.array());
+		List<String> lines = run(file, Child.class);
+		for(Curve c: Curve.values())
+			assertEquals(c+" "+(c.ordinal() != ordinal)+" "+expected(c), lines.get(c.ordinal()));
+	}
+	
+	/**
+	 * Tables mapped with the other cube root of unity, beta^2 and lambda^2, are as good on a curve which 
+	 * has no endomorphism yet.
+	 * */
+	@Test
+	public void otherPairingInFreshJvm() throws Exception {
+		Path file = dir.resolve("other.bin");
+		saveOtherPairing(file, Curve.SECP_256_K1);
+		List<String> lines = run(file, Child.class);
+		for(Curve c: Curve.values())
+			assertEquals(c+" "+(c == Curve.SECP_256_K1)+" "+expected(c), lines.get(c.ordinal()));
+	}
+	
+	/**
+	 * Once the curve has its endomorphism, only a table mapped with the same beta may be installed.
+	 * */
+	@Test
+	public void tableAfterEndomorphism() throws Exception {
+		Path other = dir.resolve("other.bin"), same = dir.resolve("same.bin");
+		saveOtherPairing(other, Curve.SECP_256_K1);
+		TableStore.save(same, Curve.SECP_256_K1);
+		List<String> lines = run(null, AfterEndomorphism.class, Curve.SECP_256_K1.name(), other.toString(), same.toString());
+		assertEquals(List.of("0", "1", expected(Curve.SECP_256_K1)), lines);
+	}
+	
+	/**
+	 * Write the table of c with oddEndo mapped by beta^2, a basis for lambda^2 = -1-lambda is (a-b, -b).
+	 * */
+	static void saveOtherPairing(Path file, Curve c) throws Exception {
+		Ecdsa ecdsa = Ecdsa.from(c);
+		Endomorphism e = c.endomorphism();
+		Endomorphism other = new Endomorphism(ecdsa, e.beta.multiply(e.beta).mod(c.P), e.lambda.multiply(e.lambda).mod(c.N), 
+				e.a1.subtract(e.b1), e.b1.negate(), e.a2.subtract(e.b2), e.b2.negate());
+		FixedBaseTable t = c.baseTable();
+		FixedBaseTable table = new FixedBaseTable(t.points, t.odd, other.map(ecdsa, t.odd, c.field.scratch()));
+		TableStore.save(file, new Curve[] {c}, new FixedBaseTable[] {table}, new Endomorphism[] {other});
+	}
+	
+	/**
+	 * @return public key, deterministic signature and verification of PRIV and HASH, with tables built here.
+	 * */
+	static String expected(Curve c) {
+		Ecdsa ecdsa = Ecdsa.from(c).withDeterministicNonces();
+		byte[] pub = ecdsa.privateKeyToPublicKey(PRIV);
+		String sig = ecdsa.sign(PRIV, HASH);
+		return new BigInteger(1, pub).toString(16)+" "+sig+" "+ecdsa.verify(pub, HASH, sig);
+	}
+	
+	/**
+	 * @param file named by TableStore.PROPERTY, null for none.
+	 * 
+	 * @return lines of main run in a new jvm with args.
+	 * */
+	static List<String> run(Path file, Class<?> main, String ...args) throws Exception {
+		String java = System.getProperty("java.home")+File.separator+"bin"+File.separator+"java";
+		List<String> command = new ArrayList<>(List.of(java, "-cp", System.getProperty("java.class.path")));
+		if(file != null)
+			command.add("-D"+TableStore.PROPERTY+"="+file);
+		command.add(main.getName());
+		command.addAll(List.of(args));
+		Process p = new ProcessBuilder(command).redirectErrorStream(true).start();
+		List<String> lines = new ArrayList<>();
+		try(BufferedReader r = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+			for(String l = r.readLine(); l != null; l = r.readLine())
+				lines.add(l);
+		}
+		if(!p.waitFor(60, TimeUnit.SECONDS))
+			p.destroyForcibly();
+		assertEquals(0, p.exitValue(), String.join("\n", lines));
+		return lines;
+	}
+	
+	public static final class Child {
+		
+		/**
+		 * Print every curve, if its table came from the file, and expected(curve).
+		 * */
+		public static void main(String[] args) throws Exception {
+			Field table = Curve.class.getDeclaredField("baseTable");
+			table.setAccessible(true);
+			for(Curve c: Curve.values()) {
+				TableStore.autoload(c);
+				boolean loaded = table.get(c) != null;
+				System.out.println(c+" "+loaded+" "+expected(c));
+			}
+		}
+	}
+	
+	public static final class AfterEndomorphism {
+		
+		/**
+		 * Build the endomorphism of curve args[0], then print how many tables every file of args[1..] installed 
+		 * and expected(curve).
+		 * */
+		public static void main(String[] args) throws Exception {
+			Curve c = Curve.valueOf(args[0]);
+			c.endomorphism();
+			for(int i = 1; i < args.length; ++i)
+				System.out.println(TableStore.load(java.nio.file.Paths.get(args[i])));
+			System.out.println(expected(c));
+		}
+	}
+}
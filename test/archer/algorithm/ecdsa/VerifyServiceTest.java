@@ -0,0 +1,177 @@
+package archer.algorithm.ecdsa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+public class VerifyServiceTest {
+	
+	static final Ecdsa ECDSA = Ecdsa.from(Curve.SECP_256_K1);
+	static final byte[] PRIV = {0x3c, 0x51, 0x7a, 0x09, 0x2e, 0x44, 0x18, 0x6b, 0x71, 0x02, 0x5d, 0x1f};
+	static final byte[] PUB = ECDSA.privateKeyToPublicKey(PRIV);
+	
+	/**
+	 * Runs batches on the calling thread and counts them.
+	 * */
+	static final class Counting implements Executor {
+		final AtomicInteger batches = new AtomicInteger();
+		
+		@Override
+		public void execute(Runnable r) {
+			batches.incrementAndGet();
+			r.run();
+		}
+	}
+	
+	/**
+	 * Keeps batches until release runs them.
+	 * */
+	static final class Held implements Executor {
+		final List<Runnable> held = new ArrayList<>();
+		
+		@Override
+		public synchronized void execute(Runnable r) {
+			held.add(r);
+		}
+		
+		void release() {
+			List<Runnable> rs;
+			synchronized(this) {
+				rs = new ArrayList<>(held);
+				held.clear();
+			}
+			rs.forEach(Runnable::run);
+		}
+	}
+	
+	static byte[] hash(int i) {
+		byte[] h = new byte[32];
+		h[0] = (byte) i;
+		h[31] = (byte) (i>>8);
+		return h;
+	}
+	
+	static String sig(int i) {
+		return ECDSA.sign(PRIV, hash(i));
+	}
+	
+	@Test
+	public void fullBatchIsFlushedBeforeTheDeadline() throws Exception {
+		Counting executor = new Counting();
+		try(VerifyService service = new VerifyService(ECDSA, 4, 1, TimeUnit.HOURS, 16, executor, 1)) {
+			List<CompletableFuture<Boolean>> fs = new ArrayList<>();
+			for(int i = 0; i < 4; ++i)
+				fs.add(service.submit(PUB, hash(i), i == 2?sig(7):sig(i)));
+			for(int i = 0; i < 4; ++i)
+				assertEquals(i != 2, fs.get(i).get(10, TimeUnit.SECONDS));
+			assertEquals(1, executor.batches.get());
+		}
+	}
+	
+	@Test
+	public void partialBatchIsFlushedAtTheDeadline() throws Exception {
+		Counting executor = new Counting();
+		try(VerifyService service = new VerifyService(ECDSA, 100, 50, TimeUnit.MILLISECONDS, 16, executor, 1)) {
+			long t0 = System.nanoTime();
+			CompletableFuture<Boolean> a = service.submit(PUB, hash(0), sig(0)), b = service.submit(PUB, hash(1), sig(1));
+			assertTrue(a.get(10, TimeUnit.SECONDS));
+			assertTrue(b.get(10, TimeUnit.SECONDS));
+			assertTrue(System.nanoTime()-t0 >= TimeUnit.MILLISECONDS.toNanos(40));
+			assertEquals(1, executor.batches.get());
+		}
+	}
+	
+	/**
+	 * One batch held by the executor, one waiting for its permit and a full queue, the next offer fails.
+	 * */
+	@Test
+	public void busyExecutorFillsTheQueue() throws Exception {
+		Held executor = new Held();
+		String sig = sig(0);
+		try(VerifyService service = new VerifyService(ECDSA, 1, 0, TimeUnit.MILLISECONDS, 2, executor, 1)) {
+			List<CompletableFuture<Boolean>> accepted = new ArrayList<>();
+			CompletableFuture<Boolean> rejected = null;
+			for(int i = 0; i < 50 && rejected == null; ++i) {
+				CompletableFuture<Boolean> f = service.offer(PUB, hash(0), sig);
+				if(f.isCompletedExceptionally())
+					rejected = f;
+				else
+					accepted.add(f);
+				Thread.sleep(20);
+			}
+			assertTrue(rejected != null);
+			assertEquals(4, accepted.size());
+			assertEquals(2, service.pending());
+			CompletableFuture<Boolean> r = rejected;
+			assertTrue(assertThrows(ExecutionException.class, () -> r.get()).getCause() instanceof RejectedExecutionException);
+			
+			//every accepted request completes once the executor runs again
+			long deadline = System.nanoTime()+TimeUnit.SECONDS.toNanos(10);
+			while(!accepted.stream().allMatch(CompletableFuture::isDone) && System.nanoTime() < deadline) {
+				executor.release();
+				Thread.sleep(5);
+			}
+			for(CompletableFuture<Boolean> f: accepted)
+				assertTrue(f.getNow(false));
+		}
+	}
+	
+	@Test
+	public void closeDrainsTheQueue() throws Exception {
+		Counting executor = new Counting();
+		VerifyService service = new VerifyService(ECDSA, 2, 1, TimeUnit.HOURS, 16, executor, 1);
+		List<CompletableFuture<Boolean>> fs = new ArrayList<>();
+		for(int i = 0; i < 5; ++i)
+			fs.add(service.submit(PUB, hash(i), sig(i)));
+		service.close();
+		for(CompletableFuture<Boolean> f: fs)
+			assertTrue(f.get(10, TimeUnit.SECONDS));
+	}
+	
+	@Test
+	public void closedServiceRejects() throws Exception {
+		VerifyService service = new VerifyService(ECDSA, 2, 1, TimeUnit.MILLISECONDS, 16, new Counting(), 1);
+		service.close();
+		CompletableFuture<Boolean> a = service.offer(PUB, hash(0), sig(0)), b = service.submit(PUB, hash(0), sig(0));
+		for(CompletableFuture<Boolean> f: List.of(a, b)) {
+			assertTrue(f.isCompletedExceptionally());
+			assertTrue(assertThrows(ExecutionException.class, f::get).getCause() instanceof RejectedExecutionException);
+		}
+	}
+}
@@ -0,0 +1,185 @@
+package archer.algorithm.ecdsa;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * 
+ * Copyright (c) 2021 Archerxy
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ * @author archer
+ *
+ */
+
+/**
+ * LaneField on the widest long vectors of the cpu, one vector holds the same limb of every lane. 
+ * Multiplication scans the product column by column with Montgomery reduction interleaved, 
+ * low and high halves of the 64 bits products are summed apart so that no carry chain is needed inside a column.
+ * */
+final class VectorLaneField extends LaneField {
+	static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+	
+	/**
+	 * Narrower vectors than 256 bits are not worth the conversions.
+	 * */
+	static final int MIN_LANES = 4;
+	
+	/**
+	 * Limbs of P.
+	 * */
+	final long[] pl;
+	
+	VectorLaneField(Field F) {
+		super(F, lanes());
+		pl = new long[len];
+		for(int i = 0; i < len; ++i)
+			pl[i] = F.p[i]&M;
+	}
+	
+	static int lanes() {
+		int n = SPECIES.length();
+		if(n < MIN_LANES)
+			throw new java.lang.RuntimeException("No vector unit of 256 bits, "+SPECIES);
+		return n;
+	}
+	
+	@Override
+	void mul(long[] r, long[] a, long[] b, long[] t) {
+		int n = len, w = lanes;
+		LongVector lo = LongVector.zero(SPECIES), hi = lo;
+		//columns 0~n-1 only decide m[i], kept in t[i]
+		for(int i = 0; i < n; ++i) {
+			for(int j = 0; j <= i; ++j) {
+				LongVector p = LongVector.fromArray(SPECIES, a, j*w).mul(LongVector.fromArray(SPECIES, b, (i-j)*w));
+				lo = lo.add(p.and(M));
+				hi = hi.add(p.lanewise(VectorOperators.LSHR, 32));
+			}
+			for(int j = 0; j < i; ++j) {
+				LongVector p = LongVector.fromArray(SPECIES, t, j*w).mul(pl[i-j]);
+				lo = lo.add(p.and(M));
+				hi = hi.add(p.lanewise(VectorOperators.LSHR, 32));
+			}
+			LongVector m = lo.and(M).mul(n0).and(M);
+			m.intoArray(t, i*w);
+			LongVector p = m.mul(pl[0]);
+			lo = lo.add(p.and(M));
+			hi = hi.add(p.lanewise(VectorOperators.LSHR, 32));
+			//the low 32 bits of the column are zero now
+			lo = hi.add(lo.lanewise(VectorOperators.LSHR, 32));
+			hi = LongVector.zero(SPECIES);
+		}
+		//columns n~2n-1 are the result, kept in t[n+i]
+		for(int i = n; i < n<<1; ++i) {
+			for(int j = i-n+1; j < n; ++j) {
+				LongVector p = LongVector.fromArray(SPECIES, a, j*w).mul(LongVector.fromArray(SPECIES, b, (i-j)*w));
+				lo = lo.add(p.and(M));
+				hi = hi.add(p.lanewise(VectorOperators.LSHR, 32));
+				p = LongVector.fromArray(SPECIES, t, j*w).mul(pl[i-j]);
+				lo = lo.add(p.and(M));
+				hi = hi.add(p.lanewise(VectorOperators.LSHR, 32));
+			}
+			lo.and(M).intoArray(t, i*w);
+			lo = hi.add(lo.lanewise(VectorOperators.LSHR, 32));
+			hi = LongVector.zero(SPECIES);
+		}
+		
+		//result < 2P, result-P goes to t[2n+i] and is kept where it does not borrow or the result has a carry out
+		LongVector c = LongVector.zero(SPECIES);
+		for(int i = 0; i < n; ++i) {
+			c = c.add(LongVector.fromArray(SPECIES, t, (n+i)*w)).sub(pl[i]);
+			c.and(M).intoArray(t, ((n<<1)+i)*w);
+			c = c.lanewise(VectorOperators.ASHR, 32);
+		}
+		VectorMask<Long> reduce = lo.add(c).compare(VectorOperators.GE, 0);
+		for(int i = 0; i < n; ++i)
+			LongVector.fromArray(SPECIES, t, (n+i)*w).blend(LongVector.fromArray(SPECIES, t, ((n<<1)+i)*w), reduce)
+				.intoArray(r, i*w);
+	}
+	
+	@Override
+	void add(long[] r, long[] a, long[] b) {
+		int n = len, w = lanes;
+		LongVector c = LongVector.zero(SPECIES);
+		for(int i = 0; i < n; ++i) {
+			c = c.add(LongVector.fromArray(SPECIES, a, i*w)).add(LongVector.fromArray(SPECIES, b, i*w));
+			c.and(M).intoArray(r, i*w);
+			c = c.lanewise(VectorOperators.LSHR, 32);
+		}
+		//subtract P where the sum has a carry out or is not below P
+		LongVector d = LongVector.zero(SPECIES);
+		for(int i = 0; i < n; ++i)
+			d = d.add(LongVector.fromArray(SPECIES, r, i*w)).sub(pl[i]).lanewise(VectorOperators.ASHR, 32);
+		VectorMask<Long> reduce = c.add(d).compare(VectorOperators.GE, 0);
+		subMasked(r, reduce);
+	}
+	
+	@Override
+	void sub(long[] r, long[] a, long[] b) {
+		int n = len, w = lanes;
+		LongVector c = LongVector.zero(SPECIES);
+		for(int i = 0; i < n; ++i) {
+			c = c.add(LongVector.fromArray(SPECIES, a, i*w)).sub(LongVector.fromArray(SPECIES, b, i*w));
+			c.and(M).intoArray(r, i*w);
+			c = c.lanewise(VectorOperators.ASHR, 32);
+		}
+		//add P back where it borrows
+		VectorMask<Long> borrow = c.compare(VectorOperators.LT, 0);
+		c = LongVector.zero(SPECIES);
+		LongVector zero = c;
+		for(int i = 0; i < n; ++i) {
+			c = c.add(LongVector.fromArray(SPECIES, r, i*w)).add(zero.blend(pl[i], borrow));
+			c.and(M).intoArray(r, i*w);
+			c = c.lanewise(VectorOperators.LSHR, 32);
+		}
+	}
+	
+	/**
+	 * r = r-P in the lanes of mask, the borrow out of the top limb is dropped.
+	 * */
+	private void subMasked(long[] r, VectorMask<Long> mask) {
+		int n = len, w = lanes;
+		LongVector c = LongVector.zero(SPECIES), zero = c;
+		for(int i = 0; i < n; ++i) {
+			c = c.add(LongVector.fromArray(SPECIES, r, i*w)).sub(zero.blend(pl[i], mask));
+			c.and(M).intoArray(r, i*w);
+			c = c.lanewise(VectorOperators.ASHR, 32);
+		}
+	}
+	
+	@Override
+	long zeros(long[] a) {
+		LongVector d = LongVector.zero(SPECIES);
+		for(int i = 0; i < len; ++i)
+			d = d.or(LongVector.fromArray(SPECIES, a, i*lanes));
+		return d.compare(VectorOperators.EQ, 0).toLong();
+	}
+	
+	@Override
+	void blend(long[] r, long[] a, long mask) {
+		if(mask == 0)
+			return;
+		VectorMask<Long> m = VectorMask.fromLong(SPECIES, mask);
+		for(int i = 0; i < len; ++i)
+			LongVector.fromArray(SPECIES, r, i*lanes).blend(LongVector.fromArray(SPECIES, a, i*lanes), m)
+				.intoArray(r, i*lanes);
+	}
+}